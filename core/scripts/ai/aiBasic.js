@@ -58,17 +58,23 @@ function runTurn(game, parent) {
 			potentialTargets.sortClosestFirst();
 			var target = potentialTargets.getTarget(0);
 			
-			// find the weakest closest target
+			// find the weakest closest target, preferring targets with a clear line of fire
 			var fewestHP = 10000;
+			var clearLine = false;
 			var distance = potentialTargets.getDistance(0);
 			for (var j = 0; j < potentialTargets.size(); j++) {
 				if (potentialTargets.getDistance(j) > distance)
 					break;
 				
 				var curTarget = potentialTargets.getTarget(j);
-				if (curTarget.getCurrentHitPoints() < fewestHP) {
+				var curClearLine = game.ai.hasClearLineOfFire(parent, curTarget);
+				
+				if (clearLine && !curClearLine) continue;
+				
+				if ((curClearLine && !clearLine) || curTarget.getCurrentHitPoints() < fewestHP) {
 					target = curTarget;
 					fewestHP = target.getCurrentHitPoints();
+					clearLine = curClearLine;
 				}
 			}
 		}
@@ -12,13 +12,16 @@ function runTurn(game, parent) {
 		}
 	}
 
-	var aiSet = parent.abilities.createAISet();
+	// gather the visible creatures and usable abilities once, rather than querying
+	// them separately for each decision
+	var snapshot = game.ai.getTacticalSnapshot(parent);
+	var aiSet = snapshot.getAbilitySlots();
 	
 	// figure out the set of usable action types
 	var usableActionTypes = [ "Buff", "Debuff", "Damage", "Summon" ];
 	
 	// see if healing spells should be in the mix
-	if (checkForHealingSpells(game, parent, aiSet)) {
+	if (checkForHealingSpells(game, parent, aiSet, snapshot)) {
 		usableActionTypes = usableActionTypes.concat("Heal");
 	}
 	
@@ -26,7 +29,7 @@ function runTurn(game, parent) {
 	
 	// add any specific tactical spells that should be used
 	// most will provide a corresponding target
-	var preferredTarget = checkForTacticalAbilities(game, parent, aiSet, allSlots,
+	var preferredTarget = checkForTacticalAbilities(game, parent, aiSet, allSlots, snapshot,
 		[checkTotalDefense, checkRenewal, checkDispell]);
 	
 	// check if we have any valid abilities to use
@@ -50,8 +53,12 @@ function runTurn(game, parent) {
 		// don't try to activate slots which are already active
 		if (slot.isActive()) continue;
 		
+		// the previous ability may have moved the parent or killed a target
+		if (!snapshot.isValid())
+			snapshot = game.ai.getTacticalSnapshot(parent);
+		
 		// first attempt to move within range as needed
-		var targetData = moveTowardsForAbility(game, parent, slot, preferredTarget);
+		var targetData = moveTowardsForAbility(game, parent, slot, preferredTarget, snapshot);
 		
 		if (targetData.endTurn)
 			return;
@@ -84,22 +91,14 @@ function runTurn(game, parent) {
  * set of usable abilities
  */
 
-function checkForHealingSpells(game, parent, aiSet) {
+function checkForHealingSpells(game, parent, aiSet, snapshot) {
 	// check to see if we have any healing spells
 	var healingSlots = aiSet.getWithActionType("Heal");
 	if (healingSlots.size() > 0) {
-		// if we have a healing spell, check if there are any good targets
-		
-		var friendlies = game.ai.getLiveVisibleCreatures(parent, "Friendly");
-		
-		// check for a friendly below 1/2 Max HP
-		for (var i = 0; i < friendlies.size(); i++) {
-			var friendly = friendlies.get(i);
-			
-			if (friendly.getCurrentHitPoints() / friendly.stats.getMaxHP() < 0.5) {
-				// we found a good target
-				return true;
-			}
+		// if we have a healing spell, check for a friendly below 1/2 Max HP
+		if (snapshot.getLowestFriendlyHPFraction() < 0.5) {
+			// we found a good target
+			return true;
 		}
 	}
 	
@@ -113,9 +112,9 @@ function checkForHealingSpells(game, parent, aiSet) {
  * be used with the chosen tactical ability
  */
 
-function checkForTacticalAbilities(game, parent, aiSet, allSlots, functions) {
+function checkForTacticalAbilities(game, parent, aiSet, allSlots, snapshot, functions) {
 	for (var i = 0; i < functions.length; i++) {
-		var target = functions[i](game, parent, aiSet, allSlots);
+		var target = functions[i](game, parent, aiSet, allSlots, snapshot);
 		
 		if (target != null) return target;
 	}
@@ -123,11 +122,10 @@ function checkForTacticalAbilities(game, parent, aiSet, allSlots, functions) {
 	return null;
 }
 
-function checkTotalDefense(game, parent, aiSet, allSlots) {
+function checkTotalDefense(game, parent, aiSet, allSlots, snapshot) {
 	if (!parent.abilities.has("TotalDefense")) return null;
 	
-	var nearbyHostiles = game.ai.getTouchableCreatures(parent, "Hostile");
-	if (nearbyHostiles.size() <= 2) return null;
+	if (snapshot.getNumTouchableHostiles() <= 2) return null;
 	
 	// if the parent is surrounded by hostiles, now is a good time to use total defense
 	var slot = parent.abilities.getSlotWithReadiedAbility("TotalDefense");
@@ -137,14 +135,14 @@ function checkTotalDefense(game, parent, aiSet, allSlots) {
 	return parent.getLocation();
 }
 
-function checkRenewal(game, parent, aiSet, allSlots) {
+function checkRenewal(game, parent, aiSet, allSlots, snapshot) {
 	if (!parent.abilities.has("Renewal")) return null;
 	
 	var slot = parent.abilities.getSlotWithReadiedAbility("Renewal");
 	if (slot == null) return null;
 	
 	var ability = slot.getAbility();
-	var friendlies = game.ai.getLiveVisibleCreatures(parent, "Friendly");
+	var friendlies = snapshot.getFriendlies();
 	
 	for (var i = 0; i < friendlies.size(); i++) {
 		var friendly = friendlies.get(i);
@@ -159,14 +157,14 @@ function checkRenewal(game, parent, aiSet, allSlots) {
 	}
 }
 
-function checkDispell(game, parent, aiSet, allSlots) {
+function checkDispell(game, parent, aiSet, allSlots, snapshot) {
 	if (!parent.abilities.has("Dispell")) return null;
 	
 	var slot = parent.abilities.getSlotWithReadiedAbility("Dispell");
 	if (slot == null) return null;
 	
 	var ability = slot.getAbility();
-	var friendlies = game.ai.getLiveVisibleCreatures(parent, "Friendly");
+	var friendlies = snapshot.getFriendlies();
 	
 	for (var i = 0; i < friendlies.size(); i++) {
 		var friendly = friendlies.get(i);
@@ -292,7 +290,7 @@ function tryActivateAbility(game, parent, target, slot, aiSet) {
  * the specified ability slot
  */
 
-function moveTowardsForAbility(game, parent, slot, preferredTarget) {
+function moveTowardsForAbility(game, parent, slot, preferredTarget, snapshot) {
 	// if the slot cannot activate, it means we don't have enough AP
 	// and probably can't do anything useful
 	if (!slot.canActivate()) {
@@ -312,7 +310,7 @@ function moveTowardsForAbility(game, parent, slot, preferredTarget) {
 	// if we don't already have a target, try to find one
 	if (preferredTarget == null) {
 		// find the best target for our ability
-		var preferredTarget = findBestTarget(game, preferredDistance, parent, slot);
+		var preferredTarget = findBestTarget(game, preferredDistance, parent, slot, snapshot);
 	}
 
 	// if no target was found, return and try a different ability
@@ -363,7 +361,7 @@ function moveTowardsForAbility(game, parent, slot, preferredTarget) {
  * that target
  */
 
-function findBestTarget(game, preferredDistance, parent, slot) {
+function findBestTarget(game, preferredDistance, parent, slot, snapshot) {
 	// figure out whether we should target friendlies or hostiles
 	var actionType = slot.getAbility().getActionType().toString();
 	
@@ -388,13 +386,12 @@ function findBestTarget(game, preferredDistance, parent, slot) {
 	}
 	
 	// get the list of all targets sorted closest first
-	var allTargets = game.ai.getLiveVisibleCreatures(parent, targetRelationship);
-	game.ai.sortCreatureListClosestFirst(parent, allTargets);
+	var allTargets = snapshot.getCreatures(targetRelationship);
 	
 	// find the best target based on action type
 	if (actionType.equals("Heal")) {
 		// find the most damaged friendly
-		var target = findBestHealTarget(game, allTargets, parent, slot);
+		var target = findBestHealTarget(game, allTargets, parent, slot, snapshot);
 	} else {
 		// find the closest target match
 		var target = findClosestTarget(game, allTargets, parent, slot);
@@ -410,12 +407,12 @@ function findBestTarget(game, preferredDistance, parent, slot) {
  * it is assumed that the creatures array is already sorted closest first
  */
 
-function findBestHealTarget(game, creatures, parent, slot) {
+function findBestHealTarget(game, creatures, parent, slot, snapshot) {
 	var bestTarget = null;
 	var bestHP = 1.0;
 	
 	for (var i = 0; i < creatures.size(); i++) {
-		var hpFraction = creatures.get(i).getCurrentHitPoints() / creatures.get(i).stats.getMaxHP();
+		var hpFraction = snapshot.getHPFraction(creatures.get(i));
 		
 		// favor earlier (closer) entries in the inequality when ties arise
 		if (hpFraction < bestHP) {
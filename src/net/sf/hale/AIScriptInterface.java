@@ -22,8 +22,12 @@ package net.sf.hale;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import net.sf.hale.bonus.Stat;
 import net.sf.hale.defaultability.Move;
@@ -34,7 +38,9 @@ import net.sf.hale.entity.Path;
 import net.sf.hale.interfacelock.MovementHandler;
 import net.sf.hale.rules.Faction;
 import net.sf.hale.util.AreaUtil;
+import net.sf.hale.util.DistanceField;
 import net.sf.hale.util.Point;
+import net.sf.hale.util.WorkerPool;
 
 /**
  * Class containing static methods that are useful for many of the JavaScript scripts,
@@ -45,6 +51,151 @@ import net.sf.hale.util.Point;
  */
 
 public class AIScriptInterface {
+	// the most recent distance fields, with and without ignoring creatures
+	private DistanceField movementField, ignoreCreaturesField;
+	
+	// distance fields being found ahead of time for creatures whose turns are coming up,
+	// with the movement field first and the ignoring creatures field second
+	private final Map<Creature, Future<DistanceField[]>> precomputedFields =
+		new HashMap<Creature, Future<DistanceField[]>>();
+	
+	/**
+	 * Returns the distance field holding the shortest paths from the parent's current
+	 * location to every point it can reach.  The most recently used fields are kept, so
+	 * repeated path queries for the same creature in the same situation share a single
+	 * search.  A new field is created whenever the parent has moved or anything affecting
+	 * its movement has changed.
+	 * @param parent the creature that is moving
+	 * @param ignoreCreatures true to ignore the positions of all creatures when finding
+	 * paths, false to treat other creatures as blocking
+	 * @return the distance field for the parent
+	 */
+	
+	public synchronized DistanceField getDistanceField(Creature parent, boolean ignoreCreatures) {
+		DistanceField field = ignoreCreatures ? ignoreCreaturesField : movementField;
+		
+		if (field == null || field.getMover() != parent || !field.isValid()) {
+			usePrecomputedFields(parent);
+			
+			field = ignoreCreatures ? ignoreCreaturesField : movementField;
+		}
+		
+		if (field == null || field.getMover() != parent || !field.isValid()) {
+			field = new DistanceField(parent, ignoreCreatures);
+			
+			if (ignoreCreatures) ignoreCreaturesField = field;
+			else movementField = field;
+		}
+		
+		return field;
+	}
+	
+	/*
+	 * Replaces the current fields with the fields precomputed for the parent, if they
+	 * have been found.  The fields still have to be checked for validity, as the situation
+	 * may have changed since they were found
+	 */
+	
+	private void usePrecomputedFields(Creature parent) {
+		Future<DistanceField[]> future = precomputedFields.remove(parent);
+		if (future == null) return;
+		
+		if (!future.isDone()) {
+			// the caller will find the field itself rather than waiting
+			future.cancel(false);
+			return;
+		}
+		
+		try {
+			DistanceField[] fields = future.get();
+			
+			movementField = fields[0];
+			ignoreCreaturesField = fields[1];
+		} catch (Exception e) {
+			// the fields may fail if the area changed while they were being found;
+			// the caller will find them again
+		}
+	}
+	
+	/**
+	 * Starts finding the distance fields for each of the specified creatures in the
+	 * background, so that they are ready when each creature's turn starts.  Fields
+	 * being found for creatures not in the list are discarded.  Fields that were found
+	 * earlier but are no longer valid, because a creature has since moved, are found
+	 * again.  The first creature in the list is the creature whose turn is starting, and
+	 * its fields are always found again from the current state.  Player characters are
+	 * skipped.
+	 * @param upcoming the creatures whose turns are coming up, such as from
+	 * {@link CombatRunner#getNextCreatures(int)}
+	 */
+	
+	public synchronized void precomputeDistanceFields(List<Creature> upcoming) {
+		Iterator<Map.Entry<Creature, Future<DistanceField[]>>> iter = precomputedFields.entrySet().iterator();
+		while (iter.hasNext()) {
+			Map.Entry<Creature, Future<DistanceField[]>> entry = iter.next();
+			
+			if (!upcoming.contains(entry.getKey())) {
+				entry.getValue().cancel(false);
+				iter.remove();
+			}
+		}
+		
+		Creature current = upcoming.isEmpty() ? null : upcoming.get(0);
+		
+		for (final Creature creature : upcoming) {
+			if (creature.isPlayerFaction()) continue;
+			
+			if (!creature.isAIActive() || !creature.getTemplate().hasScript()) continue;
+			
+			Future<DistanceField[]> existing = precomputedFields.get(creature);
+			if (existing != null) {
+				if (creature != current && isStillUsable(existing)) continue;
+				
+				existing.cancel(false);
+			}
+			
+			Future<DistanceField[]> future = WorkerPool.getBackgroundPool().submit(new Callable<DistanceField[]>() {
+				@Override public DistanceField[] call() {
+					return new DistanceField[] {
+						new DistanceField(creature, false), new DistanceField(creature, true)
+					};
+				}
+			});
+			
+			precomputedFields.put(creature, future);
+		}
+	}
+	
+	/*
+	 * Returns true if the specified fields are still being found, or have been found
+	 * and are still valid
+	 */
+	
+	private boolean isStillUsable(Future<DistanceField[]> future) {
+		if (!future.isDone()) return true;
+		
+		try {
+			DistanceField[] fields = future.get();
+			
+			return fields[0].isValid() && fields[1].isValid();
+		} catch (Exception e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Discards all distance fields, including any being found in the background
+	 */
+	
+	public synchronized void clearDistanceFields() {
+		for (Future<DistanceField[]> future : precomputedFields.values()) {
+			future.cancel(false);
+		}
+		
+		precomputedFields.clear();
+		movementField = null;
+		ignoreCreaturesField = null;
+	}
 	
 	/**
 	 * Returns a path for the parent to the specified position, or null if no path
@@ -137,6 +288,10 @@ public class AIScriptInterface {
 		Move move = new Move();
 		move.setTruncatePath(false);
 		
+		if (location.getArea() == parent.getLocation().getArea()) {
+			move.setDistanceField(getDistanceField(parent, false));
+		}
+		
 		if (!move.canMove(parent, location, distanceAway)) {
 			return false;
 		}
@@ -331,6 +486,20 @@ public class AIScriptInterface {
 		}
 	}
 	
+	/**
+	 * Returns a snapshot of the tactical situation of the specified parent, including
+	 * visible hostiles and friendlies sorted by distance, their hit points, and the
+	 * parent's usable abilities.  AI scripts should use a snapshot rather than querying
+	 * this information piece by piece, and take a new one once the snapshot is no
+	 * longer valid
+	 * @param parent the AI creature
+	 * @return a snapshot of the parent's tactical situation
+	 */
+	
+	public AITacticalSnapshot getTacticalSnapshot(Creature parent) {
+		return new AITacticalSnapshot(this, parent);
+	}
+	
 	/**
 	 * Returns the set of creatures known to the specified parent that can potentially
 	 * be attacked currently.  this set can then be sorted, etc by the caller
@@ -341,7 +510,7 @@ public class AIScriptInterface {
 	public  AITargetSet getPotentialAttackTargets(Creature parent) {
 		List<Creature> creatures = getLiveVisibleCreatures(parent, Faction.Relationship.Hostile.toString());
 		
-		return new AITargetSet(parent, creatures);
+		return new AITargetSet(this, parent, creatures);
 	}
 	
 	/**
@@ -450,6 +619,21 @@ public class AIScriptInterface {
 		return creatures;
 	}
 	
+	/**
+	 * Returns true if there is a clear line of fire from parent to target, meaning that
+	 * no wall or other creature is in the way.  Ranged attacks along a line that is not
+	 * clear suffer additional concealment.
+	 * 
+	 * @param parent the creature attacking
+	 * @param target the creature being targeted
+	 * @return whether there is a clear line of fire between parent and target
+	 */
+	
+	public boolean hasClearLineOfFire(Creature parent, Creature target) {
+		return parent.getLocation().getArea().hasClearLine(parent.getLocation().toPoint(),
+				target.getLocation().toPoint());
+	}
+	
 	/**
 	 * Returns the list of all creatures within the specified range of parent meeting the specified
 	 * faction relationship.
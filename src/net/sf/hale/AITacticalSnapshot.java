@@ -0,0 +1,235 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.hale.ability.AIAbilitySlotSet;
+import net.sf.hale.entity.Creature;
+import net.sf.hale.entity.Location;
+import net.sf.hale.rules.Faction;
+import net.sf.hale.util.AreaUtil;
+import net.sf.hale.util.Point;
+
+/**
+ * A view of the tactical situation of one AI creature, gathered in a single call so that
+ * AI scripts can make their decisions without querying the same information repeatedly.
+ * The snapshot holds the live, visible hostile and friendly creatures, each sorted
+ * closest first, along with their distances and hit point fractions, the number of
+ * hostiles adjacent to the parent, and the parent's AI ability slots.  Pathing data
+ * for attacking each hostile is found the first time it is requested.
+ *
+ * A snapshot is not updated as the situation changes.  Once the parent moves or any
+ * creature in the snapshot dies, {@link #isValid()} returns false and a new snapshot
+ * should be taken.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class AITacticalSnapshot {
+	private final AIScriptInterface ai;
+	private final Creature parent;
+	private final Location parentLocation;
+	
+	private final List<Creature> hostiles;
+	private final List<Creature> friendlies;
+	private final Map<Creature, Integer> distances;
+	
+	private final int numTouchableHostiles;
+	private final float lowestFriendlyHPFraction;
+	
+	private AIAbilitySlotSet abilitySlots;
+	private AITargetSet attackTargets;
+	
+	/**
+	 * Creates a new snapshot of the current situation of the specified creature
+	 * @param ai the interface used to query the creatures in the snapshot
+	 * @param parent the AI creature
+	 */
+	
+	public AITacticalSnapshot(AIScriptInterface ai, Creature parent) {
+		this.ai = ai;
+		this.parent = parent;
+		this.parentLocation = parent.getLocation();
+		
+		this.distances = new HashMap<Creature, Integer>();
+		
+		this.hostiles = sortClosestFirst(ai.getLiveVisibleCreatures(parent, Faction.Relationship.Hostile.toString()));
+		this.friendlies = sortClosestFirst(ai.getLiveVisibleCreatures(parent, Faction.Relationship.Friendly.toString()));
+		
+		float lowest = 1.0f;
+		for (Creature friendly : friendlies) {
+			lowest = Math.min(lowest, getHPFraction(friendly));
+		}
+		this.lowestFriendlyHPFraction = lowest;
+		
+		this.numTouchableHostiles = ai.getTouchableCreatures(parent, Faction.Relationship.Hostile.toString()).size();
+	}
+	
+	private List<Creature> sortClosestFirst(List<Creature> creatures) {
+		Point p = parentLocation.toPoint();
+		
+		for (Creature creature : creatures) {
+			distances.put(creature, AreaUtil.distance(p.x, p.y,
+					creature.getLocation().getX(), creature.getLocation().getY()));
+		}
+		
+		Collections.sort(creatures, new Comparator<Creature>() {
+			@Override public int compare(Creature a, Creature b) {
+				return distances.get(a) - distances.get(b);
+			}
+		});
+		
+		return Collections.unmodifiableList(creatures);
+	}
+	
+	/**
+	 * Returns the creature this snapshot was taken for
+	 * @return the parent creature
+	 */
+	
+	public Creature getParent() {
+		return parent;
+	}
+	
+	/**
+	 * Returns true if this snapshot still reflects the current situation: the parent
+	 * has not moved and none of the creatures in this snapshot have died
+	 * @return whether this snapshot is still valid
+	 */
+	
+	public boolean isValid() {
+		if (!parentLocation.equals(parent.getLocation())) return false;
+		
+		for (Creature creature : distances.keySet()) {
+			if (creature.isDead() || creature.isDying()) return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns the list of live, visible hostile creatures, closest first
+	 * @return the list of hostiles.  This list is unmodifiable
+	 */
+	
+	public List<Creature> getHostiles() {
+		return hostiles;
+	}
+	
+	/**
+	 * Returns the list of live, visible friendly creatures, closest first
+	 * @return the list of friendlies.  This list is unmodifiable
+	 */
+	
+	public List<Creature> getFriendlies() {
+		return friendlies;
+	}
+	
+	/**
+	 * Returns the list of live, visible creatures with the specified relationship to
+	 * the parent, closest first
+	 * @param relationship either "Hostile" or "Friendly"
+	 * @return the list of creatures.  This list is unmodifiable
+	 */
+	
+	public List<Creature> getCreatures(String relationship) {
+		switch (Faction.Relationship.valueOf(relationship)) {
+		case Hostile: return hostiles;
+		case Friendly: return friendlies;
+		default:
+			throw new IllegalArgumentException("Snapshots only hold Hostile and Friendly creatures");
+		}
+	}
+	
+	/**
+	 * Returns the distance in hexes from the parent to the specified creature, as of when
+	 * this snapshot was taken
+	 * @param creature a creature in this snapshot
+	 * @return the distance to the creature, or Integer.MAX_VALUE if the creature is
+	 * not in this snapshot
+	 */
+	
+	public int getDistance(Creature creature) {
+		Integer distance = distances.get(creature);
+		
+		return distance == null ? Integer.MAX_VALUE : distance;
+	}
+	
+	/**
+	 * Returns the fraction of its maximum hit points that the specified creature currently has
+	 * @param creature the creature
+	 * @return the current hit point fraction
+	 */
+	
+	public float getHPFraction(Creature creature) {
+		return (float)creature.getCurrentHitPoints() / (float)creature.stats.getMaxHP();
+	}
+	
+	/**
+	 * Returns the lowest hit point fraction of any friendly creature in this snapshot,
+	 * or 1.0 if there are no friendlies
+	 * @return the lowest friendly hit point fraction
+	 */
+	
+	public float getLowestFriendlyHPFraction() {
+		return lowestFriendlyHPFraction;
+	}
+	
+	/**
+	 * Returns the number of hostile creatures adjacent to the parent
+	 * @return the number of adjacent hostiles
+	 */
+	
+	public int getNumTouchableHostiles() {
+		return numTouchableHostiles;
+	}
+	
+	/**
+	 * Returns the AI ability slot set for the parent, containing all slots that can
+	 * currently be activated or deactivated
+	 * @return the AI ability slot set
+	 */
+	
+	public AIAbilitySlotSet getAbilitySlots() {
+		if (abilitySlots == null) abilitySlots = parent.abilities.createAISet();
+		
+		return abilitySlots;
+	}
+	
+	/**
+	 * Returns the set of hostiles that the parent could attack with its main weapon,
+	 * including the path, path distance, and attacks of opportunity needed to reach each
+	 * one.  The set is created the first time this method is called
+	 * @return the set of attack targets
+	 */
+	
+	public AITargetSet getAttackTargets() {
+		if (attackTargets == null) attackTargets = new AITargetSet(ai, parent, new ArrayList<Creature>(hostiles));
+		
+		return attackTargets;
+	}
+}
@@ -20,13 +20,16 @@ public class AITargetSet {
 	private final List<TargetInfo> targets;
 	
 	/**
-	 * Creates a new AITargetSet
+	 * Creates a new AITargetSet.  The paths to all of the targets are found using the
+	 * distance fields for the parent from the specified interface, so finding paths to
+	 * many targets costs little more than finding a path to one.
+	 * @param ai the interface used to find the distance fields for the parent
 	 * @param parent the attacking creature
 	 * @param possibleTargets the list of possible targets for the attacker.  Only some
 	 * (or none) of these could end up in the final set
 	 */
 	
-	public AITargetSet(Creature parent, List<Creature> possibleTargets) {
+	public AITargetSet(AIScriptInterface ai, Creature parent, List<Creature> possibleTargets) {
 		targets = new ArrayList<TargetInfo>();
 		
 		int reach = parent.getMainHandWeapon().getTemplate().getMaxRange();
@@ -41,8 +44,7 @@ public class AITargetSet {
 				
 				// if the creature is not in melee range, compute the distance by finding a path
 				if (distance > reach) {
-					path = parent.getLocation().getArea().getUtil().findShortestPath(parent,
-							target.getLocation().toPoint(), reach);
+					path = ai.getDistanceField(parent, false).getPathWithin(target.getLocation().toPoint(), reach);
 					
 					// distance is path length + 1
 					if (path != null) distance = path.length() + 1;
@@ -50,8 +52,7 @@ public class AITargetSet {
 				}
 			} else {
 				// for non melee, compute using shortest path to the target's tile
-				path = parent.getLocation().getArea().getUtil().findShortestPathIgnoreCreatures(parent,
-						target.getLocation().toPoint());
+				path = ai.getDistanceField(parent, true).getPath(target.getLocation().toPoint());
 				
 				// distance is path length + 1
 				if (path != null) distance = path.length() + 1;
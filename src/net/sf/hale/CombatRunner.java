@@ -21,7 +21,9 @@ package net.sf.hale;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import net.sf.hale.ability.AsyncScriptable;
 import net.sf.hale.ability.ListTargeter;
@@ -48,6 +50,7 @@ import net.sf.hale.particle.Animation;
 import net.sf.hale.rules.Attack;
 import net.sf.hale.rules.Faction;
 import net.sf.hale.util.AreaUtil;
+import net.sf.hale.util.Autosaver;
 import net.sf.hale.util.Logger;
 import net.sf.hale.util.Point;
 
@@ -66,6 +69,9 @@ public class CombatRunner {
 	
 	private int combatStartRound;
 	
+	// the number of upcoming creatures to plan for in the background
+	private static final int PlannedTurns = 3;
+	
 	/**
 	 * Advances combat to the next round - the next creature in the combat
 	 * queue will have its turn.  If the game is not already in combat mode,
@@ -306,22 +312,40 @@ public class CombatRunner {
 		}
 		
 		List<Creature> visibleHostiles = AreaUtil.getVisibleCreatures(creature, Faction.Relationship.Hostile);
+		
+		// each encounter only needs to be updated once, however many of its creatures are
+		// visible, and only if it is not yet active or a new pair of hostiles is visible
+		Set<Encounter> hostileEncounters = new LinkedHashSet<Encounter>();
 		for (Creature hostile : visibleHostiles) {
+			boolean newPair = false;
+			
 			if (friendlyEncounter != null) {
-				friendlyEncounter.addHostile(hostile);
+				if (friendlyEncounter.addHostile(hostile)) newPair = true;
 			}
 			
-			if (hostile.getEncounter() != null) {
-				hostile.getEncounter().setAIActive(true);
-				
-				// don't add the friendly encounter if the party hasn't been spotted yet
-				if (!creature.stats.isHidden()) {
-					hostile.getEncounter().addHostiles(friendlies);
-				}
-				
-				if (friendlyEncounter != null) {
-					friendlyEncounter.addHostiles(hostile.getEncounter().getCreaturesInArea());
-				}
+			Encounter hostileEncounter = hostile.getEncounter();
+			if (hostileEncounter == null) continue;
+			
+			// don't add the creature if the party hasn't been spotted yet
+			if (!creature.stats.isHidden()) {
+				if (hostileEncounter.addHostile(creature)) newPair = true;
+			}
+			
+			if (newPair || !hostileEncounter.isAIActive()) {
+				hostileEncounters.add(hostileEncounter);
+			}
+		}
+		
+		for (Encounter hostileEncounter : hostileEncounters) {
+			hostileEncounter.setAIActive(true);
+			
+			// don't add the friendly encounter if the party hasn't been spotted yet
+			if (!creature.stats.isHidden()) {
+				hostileEncounter.addHostiles(friendlies);
+			}
+			
+			if (friendlyEncounter != null) {
+				friendlyEncounter.addHostiles(hostileEncounter.getCreaturesInArea());
 			}
 		}
 		
@@ -603,12 +627,20 @@ public class CombatRunner {
 			if (current instanceof PC) {
 				Game.curCampaign.party.setSelected(current);
 				Game.curCampaign.curArea.getUtil().setPartyVisibility();
+				
+				// start finding paths for the upcoming AI creatures while the player decides
+				Game.scriptInterface.ai.precomputeDistanceFields(getNextCreatures(PlannedTurns));
 
 				// allow the player to take their turn
 				break;
 
 			} else if (current.getTemplate().hasScript() && current.isAIActive()) {
 				// if current is an NPC with an AI
+				
+				// start finding paths for this creature and the upcoming creatures
+				// while this creature waits to start its turn
+				Game.scriptInterface.ai.precomputeDistanceFields(getNextCreatures(PlannedTurns));
+				
 				try {
 					Scriptable ai = current.getTemplate().getScript();
 					
@@ -632,10 +664,14 @@ public class CombatRunner {
 			}
 		}
 		
-		if (isPartyDefeated())
+		if (isPartyDefeated()) {
 			setGameOver();
-		else if (!continueCombat)
+		} else if (!continueCombat) {
 			exitCombat();
+			
+			// the end of combat is a safe point for an autosave
+			Autosaver.requestAutosave();
+		}
 		
 		Game.mainViewer.updateInterface();
 	}
@@ -731,6 +767,8 @@ public class CombatRunner {
 	 */
 	
 	public void exitCombat() {
+		Game.scriptInterface.ai.clearDistanceFields();
+		
 		for (Creature creature : creatures) {
 			if (creature.isDead()) {
 				creature.abilities.cancelAllEffects();
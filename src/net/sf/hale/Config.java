@@ -57,6 +57,8 @@ public class Config {
 	/** The config file version.  Used to know if a config file is out of date and should be replaced.  Shouldn't be used anywhere else **/
 	public static final int Version = 1;
 	
+	private static final String DefaultConfigFile = "docs/defaultConfig.json";
+	
 	private int resolutionX, resolutionY;
 	private final boolean fullscreen;
 	private boolean scale2x;
@@ -70,6 +72,11 @@ public class Config {
 	private final boolean warningMode;
 	private final int combatDelay;
 	private final long checkForUpdatesInterval;
+	private final boolean binarySaveFormat;
+	private final int autosaveSlots;
+	private final long autosaveInterval;
+	private final long scriptTimeBudget;
+	private final boolean scriptWatchdogInterrupt;
 	
 	private final String versionID;
 	
@@ -84,6 +91,46 @@ public class Config {
 		return checkForUpdatesInterval;
 	}
 	
+	/**
+	 * Returns true if save games should be written in the compact binary format, false
+	 * if they should be written as JSON text, which is the default.  Both formats can always
+	 * be loaded by this version, but older versions can only load JSON save games
+	 * @return whether to write save games in the binary format
+	 */
+	
+	public boolean useBinarySaveFormat() { return binarySaveFormat; }
+	
+	/**
+	 * Returns the number of autosave files that are rotated between.  If this is zero,
+	 * autosaving is disabled
+	 * @return the number of autosave slots
+	 */
+	
+	public int getAutosaveSlots() { return autosaveSlots; }
+	
+	/**
+	 * Returns the minimum amount of time in milliseconds between two autosaves
+	 * @return the minimum time between autosaves
+	 */
+	
+	public long getAutosaveInterval() { return autosaveInterval; }
+	
+	/**
+	 * Returns the CPU time in milliseconds that a single script function may use before
+	 * the script watchdog reports it.  If this is zero, the watchdog is disabled
+	 * @return the script time budget
+	 */
+	
+	public long getScriptTimeBudget() { return scriptTimeBudget; }
+	
+	/**
+	 * Returns true if the script watchdog should stop scripts that run longer than
+	 * the script time budget, rather than only reporting them
+	 * @return whether the script watchdog stops scripts
+	 */
+	
+	public boolean isScriptWatchdogInterruptEnabled() { return scriptWatchdogInterrupt; }
+	
 	/**
 	 * Returns true if a random seed has been set in the config file, false otherwise
 	 * @return true if a random seed has been set, false otherwise
@@ -283,6 +330,11 @@ public class Config {
 		debugMode = parser.get("DebugMode", false);
 		warningMode = parser.get("WarningMode", false);
 		checkForUpdatesInterval = parser.get("CheckForUpdatesInterval", 86400000);
+		binarySaveFormat = parser.get("BinarySaveFormat", false);
+		autosaveSlots = Math.min(9, Math.max(0, parser.get("AutosaveSlots", 3)));
+		autosaveInterval = parser.get("AutosaveInterval", 120000);
+		scriptTimeBudget = Math.max(0, parser.get("ScriptTimeBudget", 0));
+		scriptWatchdogInterrupt = parser.get("ScriptWatchdogInterrupt", false);
 		
 		if (parser.containsKey("RandomSeed")) {
 			randSeedSet = true;
@@ -294,8 +346,29 @@ public class Config {
 		
 		keyBindingActions = new HashMap<String, Integer>();
 		
-		SimpleJSONObject bindingsObject = parser.getObject("Keybindings");
+		readKeyBindings(parser.getObject("Keybindings"));
+		
+		// actions added since the config file was created use the default binding
+		File defaultConfigFile = new File(DefaultConfigFile);
+		if (defaultConfigFile.isFile()) {
+			SimpleJSONParser defaultParser = new SimpleJSONParser(defaultConfigFile);
+			readKeyBindings(defaultParser.getObject("Keybindings"));
+		}
+		
+		// prevent an unused key warning
+		parser.get("ConfigVersion", 0);
+		
+		parser.warnOnUnusedKeys();
+	}
+	
+	/*
+	 * Adds the bindings in the specified object for any actions that are not already bound
+	 */
+	
+	private void readKeyBindings(SimpleJSONObject bindingsObject) {
 		for (String bindingName : bindingsObject.keySet()) {
+			if (keyBindingActions.containsKey(bindingName)) continue;
+			
 			String keyboardKey = bindingsObject.get(bindingName, null);
 			
 			if (keyboardKey.length() > 0) {
@@ -303,13 +376,7 @@ public class Config {
 			} else {
 				keyBindingActions.put(bindingName, -1);
 			}
-			
 		}
-		
-		// prevent an unused key warning
-		parser.get("ConfigVersion", 0);
-		
-		parser.warnOnUnusedKeys();
 	}
 	
 	/**
@@ -338,7 +405,7 @@ public class Config {
 	
 	private void createConfigFile(String fileName) {
 		try {
-			FileUtil.copyFile(new File("docs/defaultConfig.json"), new File(fileName));
+			FileUtil.copyFile(new File(DefaultConfigFile), new File(fileName));
 		} catch (IOException e) {
 			Logger.appendToErrorLog("Error creating configuration file.", e);
 		}
@@ -175,6 +175,14 @@ public class Game {
 	
 	public static Dice dice;
 	
+	/**
+	 * Handles random number generation for purely visual effects, such as particles
+	 * and screen shake.  This is separate from {@link #dice} so that visual effects
+	 * do not change the outcome of any rolls.
+	 */
+	
+	public static Dice visualDice;
+	
 	/**
 	 * All valid screen resolutions at the current Bits per Pixel.
 	 */
@@ -346,6 +354,7 @@ public class Game {
 		Game.numberFormat = NumberFormat.getInstance();
 		Game.config = new Config(Game.getConfigBaseDirectory() + "config.json");
 		Game.dice = new Dice();
+		Game.visualDice = Game.dice.split();
 		
 		Game.scriptEngineManager = new JSEngineManager();
 		Game.scriptInterface = new ScriptInterface();
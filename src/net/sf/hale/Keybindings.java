@@ -28,6 +28,7 @@ import java.util.Map;
 import net.sf.hale.mainmenu.InGameMenu;
 import net.sf.hale.quickbar.Quickbar;
 import net.sf.hale.util.Logger;
+import net.sf.hale.util.Profiler;
 import net.sf.hale.util.SaveGameUtil;
 import net.sf.hale.interfacelock.MovementHandler;
 import de.matthiasmann.twl.Color;
@@ -65,6 +66,8 @@ public class Keybindings {
 		bindings.add(new EndTurn());
 		bindings.add(new Quicksave());
 		bindings.add(new ToggleMovementMode());
+		bindings.add(new ToggleProfiler());
+		bindings.add(new ExportProfilerTrace());
 		
 		for (int i = 0; i < Quickbar.ItemSlots; i++) {
 			bindings.add(new UseQuickbarSlot(i));
@@ -249,6 +252,41 @@ public class Keybindings {
 		}
 	}
 	
+	/**
+	 * A callback for showing or hiding the profiler overlay
+	 * @author Jared
+	 *
+	 */
+	
+	public static class ToggleProfiler extends Binding {
+		@Override public void run() {
+			Game.mainViewer.getProfilerOverlay().toggle();
+		}
+	}
+	
+	/**
+	 * A callback for writing the recorded profiler timings to a trace file
+	 * @author Jared
+	 *
+	 */
+	
+	public static class ExportProfilerTrace extends Binding {
+		@Override public void run() {
+			if (!Profiler.isEnabled()) {
+				Game.mainViewer.addMessage("red", "The profiler must be shown before exporting a trace.");
+				return;
+			}
+			
+			try {
+				File fout = Profiler.exportTrace();
+				Game.mainViewer.addMessage("link", "Profiler trace written to " + fout.getPath());
+			} catch (Exception e) {
+				Logger.appendToErrorLog("Error exporting profiler trace", e);
+				Game.mainViewer.addMessage("red", "Error exporting profiler trace!");
+			}
+		}
+	}
+	
 	/**
 	 * A callback for using a specified quickbar slot
 	 * @author Jared
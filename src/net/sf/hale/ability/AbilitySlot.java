@@ -152,6 +152,8 @@ public class AbilitySlot implements Saveable {
 	
 	public void loadActiveEffects(List<Effect> effects) {
 		activeEffects = effects;
+		
+		schedule();
 	}
 	
 	/**
@@ -301,6 +303,8 @@ public class AbilitySlot implements Saveable {
 	
 	public void setActiveRoundsLeft(int rounds) {
 		this.activeRoundsLeft = rounds;
+		
+		schedule();
 	}
 	
 	/**
@@ -376,6 +380,24 @@ public class AbilitySlot implements Saveable {
 		return !activeEffects.isEmpty();
 	}
 	
+	/**
+	 * Returns true if this slot has a cooldown or active rounds remaining or any active
+	 * effects, so that elapsing rounds would change it
+	 * @return whether this slot has rounds to elapse
+	 */
+	
+	boolean hasPendingRounds() {
+		return cooldownRoundsLeft > 0 || activeRoundsLeft > 0 || !activeEffects.isEmpty();
+	}
+	
+	/*
+	 * Notifies the parent's ability set that this slot may need rounds elapsed
+	 */
+	
+	private void schedule() {
+		if (parent != null && parent.abilities != null) parent.abilities.scheduleElapse(this);
+	}
+	
 	/**
 	 * Sets the cooldown time remaining for this ability slot to zero, allowing it
 	 * to be activated again immediately if it is not currently active
@@ -448,6 +470,8 @@ public class AbilitySlot implements Saveable {
 		
 		this.cooldownRoundsLeft = getAbility().getCooldown(this.parent) + this.activeRoundsLeft;
 		
+		schedule();
+		
 		getAbility().activate(this.getParent());
 	}
 	
@@ -465,6 +489,8 @@ public class AbilitySlot implements Saveable {
 		this.cooldownRoundsLeft = getAbility().getCooldown(this.parent);
 		this.activeRoundsLeft = 0;
 		
+		schedule();
+		
 		Iterator<Effect> effectIter = activeEffects.iterator();
 		while (effectIter.hasNext()) {
 			Effect effect = effectIter.next();
@@ -616,6 +642,8 @@ public class AbilitySlot implements Saveable {
 			this.activeEffects.add(effect);
 		}
 		
+		schedule();
+		
 		return effect;
 	}
 	
@@ -638,6 +666,8 @@ public class AbilitySlot implements Saveable {
 			this.activeEffects.add(effect);
 		}
 		
+		schedule();
+		
 		return effect;
 	}
 	
@@ -660,6 +690,8 @@ public class AbilitySlot implements Saveable {
 			this.activeEffects.add(aura);
 		}
 		
+		schedule();
+		
 		return aura;
 	}
 	
@@ -23,8 +23,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import net.sf.hale.Game;
 import net.sf.hale.entity.Creature;
@@ -50,7 +52,11 @@ public class CreatureAbilitySet implements Saveable {
 	private final Creature parent;
 	
 	// the top level map keys are the ability types.  The lower level map keys are the ability IDs
-	private final Map<String, Map<String, AbilityInstance>> abilities;
+	private Map<String, Map<String, AbilityInstance>> abilities;
+	
+	// abilities are shared between copies of a set, such as creatures spawned from the same
+	// template, until one of the sets adds or removes an ability
+	private boolean abilitiesShared;
 	private final Map<String, Map<String, AbilityWithActiveCount>> activateableAbilities;
 	
 	private final Map<String, List<AbilitySlot>> abilitySlots;
@@ -59,6 +65,10 @@ public class CreatureAbilitySet implements Saveable {
 	// activated from an item
 	private final List<AbilitySlot> tempAbilitySlots;
 	
+	// the ability slots with cooldowns, active rounds, or effects to elapse.  Only these
+	// slots are visited when time elapses; all other slots are idle
+	private final Set<AbilitySlot> pendingSlots;
+	
 	@Override public JSONOrderedObject save() {
 		JSONOrderedObject data = new JSONOrderedObject();
 		
@@ -146,6 +156,8 @@ public class CreatureAbilitySet implements Saveable {
 		
 		tempAbilitySlots = new ArrayList<AbilitySlot>(2);
 		
+		pendingSlots = new LinkedHashSet<AbilitySlot>();
+		
 		listeners = new ArrayList<Listener>(1);
 	}
 	
@@ -160,16 +172,16 @@ public class CreatureAbilitySet implements Saveable {
 	public CreatureAbilitySet(CreatureAbilitySet other, Creature parent) {
 		this.parent = parent;
 		
-		abilities = new HashMap<String, Map<String, AbilityInstance>>();
 		activateableAbilities = new HashMap<String, Map<String, AbilityWithActiveCount>>();
 		abilitySlots = new HashMap<String, List<AbilitySlot>>();
+		pendingSlots = new LinkedHashSet<AbilitySlot>();
 		listeners = new ArrayList<Listener>(1);
 		
-		// copy abilities from other
-		for (String type : other.abilities.keySet()) {
-			Map<String, AbilityInstance> newAbilitiesOfType = new HashMap<String, AbilityInstance>(other.abilities.get(type));
-			this.abilities.put(type, newAbilitiesOfType);
-		}
+		// share abilities with other until either set is modified.  AbilityInstances
+		// are immutable, so only the maps need to be copied at that point
+		this.abilities = other.abilities;
+		this.abilitiesShared = true;
+		other.abilitiesShared = true;
 		
 		// copy activateable abilities from other
 		for (String type : other.activateableAbilities.keySet()) {
@@ -190,7 +202,10 @@ public class CreatureAbilitySet implements Saveable {
 			
 			List<AbilitySlot> newSlots = new ArrayList<AbilitySlot>(2);
 			for (AbilitySlot slot : otherSlots) {
-				newSlots.add(new AbilitySlot(slot, parent));
+				AbilitySlot newSlot = new AbilitySlot(slot, parent);
+				newSlots.add(newSlot);
+				
+				if (newSlot.hasPendingRounds()) pendingSlots.add(newSlot);
 			}
 			
 			this.abilitySlots.put(type, newSlots);
@@ -249,6 +264,8 @@ public class CreatureAbilitySet implements Saveable {
 	public void loadAbility(Ability ability, int level, boolean role, boolean race) {
 		String type = ability.getType();
 		
+		copySharedAbilities();
+		
 		Map<String, AbilityInstance> abilitiesOfType;
 		// add the specified ability to the main abilities list
 		if (!abilities.containsKey(type)) {
@@ -354,7 +371,9 @@ public class CreatureAbilitySet implements Saveable {
 		// the ability isn't present in the type list
 		if (!instances.containsKey(ability.getID())) return;
 		
-		instances.remove(ability.getID());
+		copySharedAbilities();
+		
+		this.abilities.get(ability.getType()).remove(ability.getID());
 		
 		if (abilitySlots.containsKey(ability.getType())) {
 
@@ -362,7 +381,12 @@ public class CreatureAbilitySet implements Saveable {
 				// remove any fixed ability slots containing the Ability
 				Iterator<AbilitySlot> iter = abilitySlots.get(ability.getType()).iterator();
 				while (iter.hasNext()) {
-					if (iter.next().getAbility() == ability) iter.remove();
+					AbilitySlot slot = iter.next();
+					
+					if (slot.getAbility() == ability) {
+						iter.remove();
+						pendingSlots.remove(slot);
+					}
 				}
 			} else {
 				// remove from any AbilitySlots
@@ -376,6 +400,23 @@ public class CreatureAbilitySet implements Saveable {
 		notifyListeners();
 	}
 	
+	/*
+	 * Gives this set its own copy of the abilities maps if they are shared with another set,
+	 * so that they can be modified
+	 */
+	
+	private void copySharedAbilities() {
+		if (!abilitiesShared) return;
+		
+		Map<String, Map<String, AbilityInstance>> newAbilities = new HashMap<String, Map<String, AbilityInstance>>();
+		for (String type : abilities.keySet()) {
+			newAbilities.put(type, new HashMap<String, AbilityInstance>(abilities.get(type)));
+		}
+		
+		abilities = newAbilities;
+		abilitiesShared = false;
+	}
+	
 	/**
 	 * Removes all Abilities and AbilitySlots from this CreatureAbilitySet.
 	 * The list will be empty after this call returns.
@@ -383,7 +424,9 @@ public class CreatureAbilitySet implements Saveable {
 	
 	public void clear() {
 		abilitySlots.clear();
-		abilities.clear();
+		pendingSlots.clear();
+		abilities = new HashMap<String, Map<String, AbilityInstance>>();
+		abilitiesShared = false;
 		activateableAbilities.clear();
 		
 		// notify listeners of cleared state
@@ -498,6 +541,8 @@ public class CreatureAbilitySet implements Saveable {
 			abilitySlots.put(type, listOfSlots);
 		}
 		
+		if (slot.hasPendingRounds()) pendingSlots.add(slot);
+		
 		if (!slot.isEmpty()) {
 			Ability ability = slot.getAbility();
 			
@@ -831,12 +876,16 @@ public class CreatureAbilitySet implements Saveable {
 	public boolean elapseTime(int rounds) {
 		boolean hasActiveEffects = false;
 		
-		for (String type : abilitySlots.keySet()) {
-			for (AbilitySlot slot : abilitySlots.get(type)) {
-				slot.elapseRounds(rounds);
-				
-				hasActiveEffects = hasActiveEffects || slot.hasActiveEffects();
-			}
+		// slots may be scheduled or unscheduled by scripts run while elapsing
+		AbilitySlot[] slots = pendingSlots.toArray(new AbilitySlot[pendingSlots.size()]);
+		for (AbilitySlot slot : slots) {
+			slot.elapseRounds(rounds);
+			
+			if (!slot.hasPendingRounds()) pendingSlots.remove(slot);
+		}
+		
+		for (AbilitySlot slot : pendingSlots) {
+			hasActiveEffects = hasActiveEffects || slot.hasActiveEffects();
 		}
 		
 		Iterator<AbilitySlot> iter = tempAbilitySlots.iterator();
@@ -853,6 +902,20 @@ public class CreatureAbilitySet implements Saveable {
 		return hasActiveEffects || (!tempAbilitySlots.isEmpty());
 	}
 	
+	/**
+	 * Schedules the specified slot to have rounds elapsed along with this set, if it
+	 * is one of the slots in this set and has a cooldown, active rounds, or effects.
+	 * Ability slots call this whenever they may have started one of these
+	 * @param slot the slot to schedule
+	 */
+	
+	void scheduleElapse(AbilitySlot slot) {
+		if (!slot.hasPendingRounds()) return;
+		
+		List<AbilitySlot> slotsOfType = abilitySlots.get(slot.getType());
+		if (slotsOfType != null && slotsOfType.contains(slot)) pendingSlots.add(slot);
+	}
+	
 	/**
 	 * Adds an Ability to each empty AbilitySlot so that all slots are readied with
 	 * an Ability.  The Abilities added are valid for each slot but are otherwise
@@ -28,6 +28,7 @@ import net.sf.hale.Game;
 import net.sf.hale.HasScriptState;
 import net.sf.hale.bonus.Bonus;
 import net.sf.hale.bonus.BonusList;
+import net.sf.hale.entity.Entity;
 import net.sf.hale.icon.Icon;
 import net.sf.hale.icon.IconFactory;
 import net.sf.hale.loading.JSONOrderedObject;
@@ -354,6 +355,9 @@ public class Effect extends Scriptable implements Saveable, HasScriptState {
 	
 	public void setDuration(int duration) {
 		this.duration = duration;
+		
+		// an effect that is already applied may now need its rounds elapsed
+		if (target instanceof Entity) ((Entity)target).getEffects().durationChanged(this);
 	}
 	
 	/**
@@ -40,6 +40,11 @@ import net.sf.hale.util.SimpleJSONObject;
 /**
  * Class for storing the set of Effects currently applied to an Entity.
  * 
+ * Most effects either last until removed or are timed by the AbilitySlot that created
+ * them.  The effects that this set must elapse rounds for, those not created by a slot
+ * and with either a duration or an onRoundElapsed function, are also kept in a separate
+ * list, so elapsing rounds does not visit every effect.
+ * 
  * @author Jared Stephen
  *
  */
@@ -51,6 +56,9 @@ public class EntityEffectSet implements Iterable<Effect>, Saveable {
 	private final List<Effect> effectsNoActiveScript;
 	private final List<Effect> effectsWithActiveScript;
 	
+	// the effects in the two lists above that need their rounds elapsed by this set
+	private final List<Effect> elapsingEffects;
+	
 	@Override public JSONOrderedObject save() {
 		JSONOrderedObject data = new JSONOrderedObject();
 		
@@ -110,6 +118,7 @@ public class EntityEffectSet implements Iterable<Effect>, Saveable {
 				String ref = entryData.get("ref", null);
 				refHandler.add(ref, effect);
 				effectsNoActiveScript.add( effect );
+				if (isElapsing(effect)) elapsingEffects.add(effect);
 			}
 		}
 		
@@ -123,6 +132,7 @@ public class EntityEffectSet implements Iterable<Effect>, Saveable {
 				String ref = entryData.get("ref", null);
 				refHandler.add(ref, effect);
 				effectsWithActiveScript.add( effect );
+				if (isElapsing(effect)) elapsingEffects.add(effect);
 			}
 		}
 		
@@ -141,6 +151,7 @@ public class EntityEffectSet implements Iterable<Effect>, Saveable {
 		auras = new ArrayList<Aura>();
 		effectsNoActiveScript = new ArrayList<Effect>();
 		effectsWithActiveScript = new ArrayList<Effect>();
+		elapsingEffects = new ArrayList<Effect>();
 	}
 	
 	/**
@@ -154,11 +165,15 @@ public class EntityEffectSet implements Iterable<Effect>, Saveable {
 		this();
 		
 		for (Effect effect : other.effectsNoActiveScript) {
-			this.effectsNoActiveScript.add(new Effect(effect, target));
+			Effect copy = new Effect(effect, target);
+			this.effectsNoActiveScript.add(copy);
+			if (isElapsing(copy)) this.elapsingEffects.add(copy);
 		}
 		
 		for (Effect effect : other.effectsWithActiveScript) {
-			this.effectsWithActiveScript.add(new Effect(effect, target));
+			Effect copy = new Effect(effect, target);
+			this.effectsWithActiveScript.add(copy);
+			if (isElapsing(copy)) this.elapsingEffects.add(copy);
 		}
 		
 		for (Aura aura : other.auras) {
@@ -174,6 +189,7 @@ public class EntityEffectSet implements Iterable<Effect>, Saveable {
 		auras.clear();
 		effectsNoActiveScript.clear();
 		effectsWithActiveScript.clear();
+		elapsingEffects.clear();
 	}
 	
 	/**
@@ -206,25 +222,63 @@ public class EntityEffectSet implements Iterable<Effect>, Saveable {
 	 */
 	
 	public synchronized void elapseRounds(Entity parent, int rounds) {
-		elapseRounds(effectsNoActiveScript, parent, rounds);
-		elapseRounds(effectsWithActiveScript, parent, rounds);
+		if (elapsingEffects.isEmpty()) return;
+		
+		// scripts run while elapsing may add or remove effects, so work from a copy
+		Effect[] effects = elapsingEffects.toArray(new Effect[elapsingEffects.size()]);
+		
+		// elapse effects without scripts first, matching the order effects are stored in
+		for (Effect effect : effects) {
+			if (effect.getNumberOfScriptFunctionTypes() == 0) elapseRounds(effect, parent, rounds);
+		}
+		
+		for (Effect effect : effects) {
+			if (effect.getNumberOfScriptFunctionTypes() != 0) elapseRounds(effect, parent, rounds);
+		}
 	}
 	
-	private void elapseRounds(List<Effect> effects, Entity parent, int rounds) {
-		for (int i = 0; i < effects.size(); i++) {
-			Effect effect = effects.get(i);
-			
-			// only effects with a specified duration (meaning rounds remaining not equal to zero)
-			// can be removed
-			boolean removable = effect.getRoundsRemaining() != 0;
-			
-			if (effect.getSlot() != null) continue;
-			
-			effect.elapseRounds(rounds);
-			if (removable && effect.getRoundsRemaining() < 1) {
-				parent.removeEffect(effect);
-				i--;
-			}
+	private void elapseRounds(Effect effect, Entity parent, int rounds) {
+		// the effect may have been removed by a script run for an earlier effect
+		if (!elapsingEffects.contains(effect)) return;
+		
+		// the slot may have been set after the effect was added, such as when loading
+		if (!isElapsing(effect)) {
+			elapsingEffects.remove(effect);
+			return;
+		}
+		
+		// only effects with a specified duration (meaning rounds remaining not equal to zero)
+		// can be removed
+		boolean removable = effect.getRoundsRemaining() != 0;
+		
+		effect.elapseRounds(rounds);
+		if (removable && effect.getRoundsRemaining() < 1) {
+			parent.removeEffect(effect);
+		}
+	}
+	
+	/*
+	 * Returns true if this set is responsible for elapsing rounds for the specified effect.
+	 * Elapsing rounds for any other effect would do nothing
+	 */
+	
+	private boolean isElapsing(Effect effect) {
+		if (effect.getSlot() != null) return false;
+		
+		return effect.getRoundsRemaining() != 0 || effect.hasFunction(ScriptFunctionType.onRoundElapsed);
+	}
+	
+	/**
+	 * Called when the duration of the specified effect changes.  If the effect is held by
+	 * this set and now needs its rounds elapsed, it is tracked from now on
+	 * @param effect the effect whose duration has changed
+	 */
+	
+	public synchronized void durationChanged(Effect effect) {
+		if (elapsingEffects.contains(effect) || !isElapsing(effect)) return;
+		
+		if (effectsNoActiveScript.contains(effect) || effectsWithActiveScript.contains(effect)) {
+			elapsingEffects.add(effect);
 		}
 	}
 	
@@ -311,6 +365,8 @@ public class EntityEffectSet implements Iterable<Effect>, Saveable {
 		else
 			effectsWithActiveScript.add(effect);
 		
+		if (isElapsing(effect)) elapsingEffects.add(effect);
+		
 		executeOnAll(ScriptFunctionType.onEffectApplied, effect);
 	}
 	
@@ -332,6 +388,8 @@ public class EntityEffectSet implements Iterable<Effect>, Saveable {
 			effectsNoActiveScript.remove(effect);
 		else
 			effectsWithActiveScript.remove(effect);
+		
+		elapsingEffects.remove(effect);
 	}
 	
 	/**
@@ -0,0 +1,280 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.ability;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.script.ScriptException;
+
+import net.sf.hale.Game;
+import net.sf.hale.loading.JSONOrderedObject;
+import net.sf.hale.loading.SaveWriter;
+import net.sf.hale.resource.ResourceManager;
+import net.sf.hale.resource.ResourceType;
+import net.sf.hale.util.FileUtil;
+import net.sf.hale.util.JSEngine;
+import net.sf.hale.util.Logger;
+import net.sf.hale.util.SimpleJSONArrayEntry;
+import net.sf.hale.util.SimpleJSONObject;
+import net.sf.hale.util.SimpleJSONParser;
+import net.sf.hale.util.WorkerPool;
+
+/**
+ * A cache of the set of ScriptFunctionTypes defined by each script.  Finding the
+ * functions in a script requires evaluating it in a JavaScript engine, which is by
+ * far the most expensive part of reading in the ruleset.  Scripts are keyed by a hash
+ * of their contents, so a cached entry remains valid for as long as the script is
+ * unchanged, regardless of where it is located.
+ *
+ * The cache is stored in the config directory and read in on first use, so scripts
+ * that have not changed since the last run do not need to be evaluated at all.  Any
+ * scripts that are not in the cache can be evaluated in parallel with
+ * {@link #prepare(Collection)} before they are needed.
+ *
+ * All methods are thread safe.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class ScriptFunctionCache {
+	private static final String CacheFileName = "scriptFunctions.json";
+	private static final int Version = 1;
+	
+	// scripts not used in the current run are dropped once the cache grows past this size
+	private static final int MaxPersistedEntries = 10000;
+	
+	private static Map<String, Set<ScriptFunctionType>> entries;
+	private static Set<String> usedKeys;
+	private static boolean dirty;
+	
+	/**
+	 * Returns the set of ScriptFunctionTypes defined by the specified script.  If
+	 * the script is not already in the cache, it is evaluated and the result is
+	 * added to the cache.  The returned set must not be modified.
+	 * @param script the script contents
+	 * @param scriptLocation the location of the script, used for error reporting
+	 * @return the set of functions defined by the script
+	 */
+	
+	public static Set<ScriptFunctionType> getFunctions(String script, String scriptLocation) {
+		String key = FileUtil.getMD5Sum(script);
+		
+		Map<String, Set<ScriptFunctionType>> entries = getEntries();
+		usedKeys.add(key);
+		
+		Set<ScriptFunctionType> functions = entries.get(key);
+		if (functions != null) return functions;
+		
+		Set<ScriptFunctionType> found = EnumSet.noneOf(ScriptFunctionType.class);
+		boolean success = evaluate(script, scriptLocation, found);
+		
+		functions = Collections.unmodifiableSet(found);
+		
+		// don't cache scripts with errors, so the error is reported each time
+		if (success) {
+			entries.put(key, functions);
+			setDirty();
+		}
+		
+		return functions;
+	}
+	
+	/**
+	 * Evaluates all of the specified script resources that are not already in the cache,
+	 * in parallel on the compute pool.  This is not required, but speeds up the creation
+	 * of any Scriptables using the scripts.  Resources that are not JavaScript are skipped.
+	 * @param resources the list of script resource paths
+	 */
+	
+	public static void prepare(Collection<String> resources) {
+		final Map<String, Set<ScriptFunctionType>> entries = getEntries();
+		
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (final String resource : resources) {
+			if (!resource.endsWith(ResourceType.JavaScript.getExtension())) continue;
+			
+			tasks.add(new Callable<Void>() {
+				@Override public Void call() {
+					String script = ResourceManager.getResourceAsString(resource);
+					if (script == null) return null;
+					
+					String key = FileUtil.getMD5Sum(script);
+					if (entries.containsKey(key)) return null;
+					
+					Set<ScriptFunctionType> functions = EnumSet.noneOf(ScriptFunctionType.class);
+					if (evaluate(script, resource, functions)) {
+						entries.put(key, Collections.unmodifiableSet(functions));
+						setDirty();
+					}
+					
+					return null;
+				}
+			});
+		}
+		
+		if (tasks.isEmpty()) return;
+		
+		try {
+			WorkerPool.invokeAll(tasks);
+		} catch (Exception e) {
+			// any scripts that were not evaluated will be evaluated when needed
+			Logger.appendToErrorLog("Error preparing scripts", e);
+		}
+	}
+	
+	/**
+	 * Writes the cache to disk if any entries have been added since it was read
+	 */
+	
+	public static synchronized void flush() {
+		if (!dirty || Game.getConfigBaseDirectory() == null) return;
+		
+		JSONOrderedObject data = new JSONOrderedObject();
+		data.put("version", Version);
+		data.put("functionTypes", getFunctionTypesID());
+		
+		JSONOrderedObject scripts = new JSONOrderedObject();
+		boolean trim = entries.size() > MaxPersistedEntries;
+		for (String key : entries.keySet()) {
+			if (trim && !usedKeys.contains(key)) continue;
+			
+			List<String> names = new ArrayList<String>();
+			for (ScriptFunctionType type : entries.get(key)) {
+				names.add(type.toString());
+			}
+			
+			scripts.put(key, names.toArray());
+		}
+		data.put("scripts", scripts);
+		
+		dirty = false;
+		
+		File cacheFile = new File(Game.getConfigBaseDirectory() + CacheFileName);
+		File tempFile = new File(Game.getConfigBaseDirectory() + CacheFileName + ".tmp");
+		try {
+			PrintWriter out = new PrintWriter(tempFile);
+			SaveWriter.writeJSON(data, out);
+			out.close();
+			
+			if (!tempFile.renameTo(cacheFile)) {
+				cacheFile.delete();
+				tempFile.renameTo(cacheFile);
+			}
+		} catch (IOException e) {
+			Logger.appendToErrorLog("Error writing script function cache " + cacheFile.getPath(), e);
+		}
+	}
+	
+	private static synchronized void setDirty() {
+		dirty = true;
+	}
+	
+	/*
+	 * Evaluates the script in a pooled engine and adds the functions it defines to the
+	 * specified set.  If the script has an error, the functions defined before the error
+	 * are still added, and false is returned
+	 */
+	
+	private static boolean evaluate(String script, String scriptLocation, Set<ScriptFunctionType> functions) {
+		boolean success = true;
+		
+		JSEngine engine = Game.scriptEngineManager.getEngine();
+		
+		try {
+			engine.eval(script);
+		} catch (ScriptException e) {
+			Logger.appendToErrorLog("Error preparsing script at " + scriptLocation, e);
+			success = false;
+		}
+		
+		for (ScriptFunctionType type : ScriptFunctionType.values()) {
+			if (engine.hasFunction(type.toString())) {
+				functions.add(type);
+			}
+		}
+		
+		engine.release();
+		
+		return success;
+	}
+	
+	/*
+	 * Identifies the set of function types the cache was created with; if the enum
+	 * changes, all cached entries are discarded
+	 */
+	
+	private static String getFunctionTypesID() {
+		StringBuilder sb = new StringBuilder();
+		for (ScriptFunctionType type : ScriptFunctionType.values()) {
+			sb.append(type.toString());
+			sb.append(',');
+		}
+		
+		return FileUtil.getMD5Sum(sb.toString());
+	}
+	
+	private static synchronized Map<String, Set<ScriptFunctionType>> getEntries() {
+		if (entries != null) return entries;
+		
+		entries = new ConcurrentHashMap<String, Set<ScriptFunctionType>>();
+		usedKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		
+		if (Game.getConfigBaseDirectory() == null) return entries;
+		
+		File cacheFile = new File(Game.getConfigBaseDirectory() + CacheFileName);
+		if (!cacheFile.isFile()) return entries;
+		
+		try {
+			SimpleJSONParser parser = new SimpleJSONParser(cacheFile);
+			parser.setWarnOnMissingKeys(false);
+			
+			if (parser.get("version", 0) != Version) return entries;
+			if (!getFunctionTypesID().equals(parser.get("functionTypes", null))) return entries;
+			
+			SimpleJSONObject scripts = parser.getObject("scripts");
+			for (String key : scripts.keySet()) {
+				Set<ScriptFunctionType> functions = EnumSet.noneOf(ScriptFunctionType.class);
+				for (SimpleJSONArrayEntry entry : scripts.getArray(key)) {
+					functions.add(ScriptFunctionType.valueOf(entry.getString()));
+				}
+				
+				entries.put(key, Collections.unmodifiableSet(functions));
+			}
+		} catch (Exception e) {
+			// the cache will be rebuilt as scripts are evaluated
+			Logger.appendToErrorLog("Error reading script function cache " + cacheFile.getPath(), e);
+			entries.clear();
+		}
+		
+		return entries;
+	}
+}
@@ -0,0 +1,402 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.ability;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sf.hale.Game;
+import net.sf.hale.util.Logger;
+import net.sf.hale.util.Profiler;
+
+/**
+ * Execution statistics for every script function run through
+ * {@link Scriptable#executeFunction(String, Object...)}, including functions run by
+ * {@link AsyncScriptable} and {@link DelayedScriptCallback}.  For each script location
+ * and function name, the number of calls, the total and maximum time, and the memory
+ * allocated by the calling thread are kept.  Where the JVM does not support measuring
+ * allocation, the allocation is reported as zero.
+ *
+ * If {@link net.sf.hale.Config#getScriptTimeBudget()} is set, a watchdog thread checks
+ * running functions and writes a warning, with the current stack of the script thread,
+ * for each call that uses more CPU time than the budget.  CPU time is used rather than
+ * elapsed time, as many scripts deliberately sleep, for example between AI attacks or
+ * during cutscenes.  If the JVM cannot measure thread CPU time, the watchdog is not run.  If
+ * {@link net.sf.hale.Config#isScriptWatchdogInterruptEnabled()} is also set, the script
+ * thread is stopped.  Stopping a thread can leave game state partially updated, so this
+ * is only intended for finding runaway scripts while developing content.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class ScriptMetrics {
+	private static final long MinWatchdogPollMillis = 10;
+	
+	private static final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	
+	// the outermost script call running on each thread
+	private static final ConcurrentMap<Thread, Call> running = new ConcurrentHashMap<Thread, Call>();
+	
+	private static final com.sun.management.ThreadMXBean threadBean = getAllocationBean();
+	private static final ThreadMXBean cpuTimeBean = getCPUTimeBean();
+	
+	private static Thread watchdog;
+	
+	private static ThreadMXBean getCPUTimeBean() {
+		try {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (!bean.isThreadCpuTimeSupported()) return null;
+			
+			bean.setThreadCpuTimeEnabled(true);
+			return bean;
+		} catch (Throwable t) {
+			// the bean is not available on all JVMs
+			return null;
+		}
+	}
+	
+	private static com.sun.management.ThreadMXBean getAllocationBean() {
+		try {
+			Object bean = ManagementFactory.getThreadMXBean();
+			if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+			
+			com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean)bean;
+			if (!threadBean.isThreadAllocatedMemorySupported()) return null;
+			
+			threadBean.setThreadAllocatedMemoryEnabled(true);
+			return threadBean;
+		} catch (Throwable t) {
+			// the bean is not available on all JVMs
+			return null;
+		}
+	}
+	
+	private static long getAllocatedBytes() {
+		if (threadBean == null) return 0;
+		
+		return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+	/**
+	 * Marks the start of a call to the specified script function on the current thread
+	 * @param scriptLocation the location of the script
+	 * @param function the name of the function
+	 * @return the call, which must be passed to {@link #end(Call)} when the function returns
+	 */
+	
+	public static Call begin(String scriptLocation, String function) {
+		Call call = new Call(scriptLocation + ":" + function);
+		
+		if (!running.containsKey(call.thread)) {
+			running.put(call.thread, call);
+			
+			if (cpuTimeBean != null && Game.config != null && Game.config.getScriptTimeBudget() > 0) startWatchdog();
+		}
+		
+		return call;
+	}
+	
+	/**
+	 * Marks the end of the specified call and records its statistics
+	 * @param call the call returned by {@link #begin(String, String)}
+	 */
+	
+	public static void end(Call call) {
+		finish(call);
+		
+		long duration = System.nanoTime() - call.startTime;
+		long allocated = getAllocatedBytes() - call.startAllocated;
+		
+		Entry entry = entries.get(call.key);
+		if (entry == null) {
+			Entry newEntry = new Entry(call.key);
+			entry = entries.putIfAbsent(call.key, newEntry);
+			if (entry == null) entry = newEntry;
+		}
+		
+		entry.record(duration, allocated, call.overBudget);
+		
+		if (call.profilerStart != Profiler.Disabled) Profiler.end("Script " + call.key, call.profilerStart);
+	}
+	
+	/**
+	 * Marks the specified call as finished, after which the watchdog will no longer stop
+	 * its thread.  This should be called as soon as the script function returns or throws,
+	 * before any other cleanup.  If the watchdog stopped the thread just before this
+	 * method, the resulting ThreadDeath is thrown no later than this method, as it waits
+	 * on the same lock the watchdog holds while stopping the thread.  This method may
+	 * be called more than once; {@link #end(Call)} also calls it
+	 * @param call the call returned by {@link #begin(String, String)}
+	 */
+	
+	public static void finish(Call call) {
+		synchronized(call) {
+			call.finished = true;
+		}
+		
+		running.remove(call.thread, call);
+	}
+	
+	/**
+	 * Returns true if the watchdog has stopped the thread running the specified call
+	 * @param call the call
+	 * @return whether the call was stopped by the watchdog
+	 */
+	
+	public static boolean isStopped(Call call) {
+		synchronized(call) {
+			return call.stopped;
+		}
+	}
+	
+	/**
+	 * Returns the statistics for all script functions that have been called, with the
+	 * most total time first
+	 * @return the list of statistics
+	 */
+	
+	public static List<Entry> getEntries() {
+		List<Entry> list = new ArrayList<Entry>(entries.values());
+		
+		Collections.sort(list, new Comparator<Entry>() {
+			@Override public int compare(Entry a, Entry b) {
+				long aTotal = a.getTotalNanos();
+				long bTotal = b.getTotalNanos();
+				
+				if (aTotal > bTotal) return -1;
+				else if (aTotal < bTotal) return 1;
+				else return a.key.compareTo(b.key);
+			}
+		});
+		
+		return list;
+	}
+	
+	/**
+	 * Discards all statistics recorded so far
+	 */
+	
+	public static void clear() {
+		entries.clear();
+	}
+	
+	/**
+	 * Writes the statistics for all script functions to "log/scripts.log"
+	 * @return the file that was written
+	 * @throws IOException if an error occurs writing the file
+	 */
+	
+	public static File writeLog() throws IOException {
+		File dir = new File(Game.getLogBaseDirectory());
+		if (!dir.exists()) dir.mkdirs();
+		
+		File file = new File(dir, "scripts.log");
+		
+		PrintWriter out = new PrintWriter(new FileWriter(file));
+		try {
+			out.println("Script statistics written " + Calendar.getInstance().getTime().toString());
+			out.println("script:function, calls, total ms, max ms, allocated KB, calls over budget");
+			
+			for (Entry entry : getEntries()) {
+				out.println(entry.toString());
+			}
+		} finally {
+			out.close();
+		}
+		
+		return file;
+	}
+	
+	private static synchronized void startWatchdog() {
+		if (watchdog != null) return;
+		
+		watchdog = new Thread("Script Watchdog") {
+			@Override public void run() {
+				while (true) {
+					long budget = Game.config.getScriptTimeBudget();
+					
+					try {
+						Thread.sleep(Math.max(MinWatchdogPollMillis, budget / 4));
+					} catch (InterruptedException e) {
+						return;
+					}
+					
+					if (budget > 0) checkRunningCalls(budget * 1000000l);
+				}
+			}
+		};
+		
+		watchdog.setDaemon(true);
+		watchdog.start();
+	}
+	
+	@SuppressWarnings("deprecation")
+	private static void checkRunningCalls(long budgetNanos) {
+		for (Call call : running.values()) {
+			if (call.overBudget) continue;
+			
+			// returns -1 if the thread has died
+			long cpuTime = cpuTimeBean.getThreadCpuTime(call.thread.getId());
+			if (cpuTime == -1 || cpuTime - call.startCPUTime < budgetNanos) continue;
+			
+			call.overBudget = true;
+			
+			StringBuilder sb = new StringBuilder();
+			sb.append("Script ").append(call.key).append(" has used over ");
+			sb.append(budgetNanos / 1000000l).append(" ms of CPU time on thread ").append(call.thread.getName());
+			for (StackTraceElement element : call.thread.getStackTrace()) {
+				sb.append("\n    ").append(element.toString());
+			}
+			Logger.appendToWarningLog(sb.toString());
+			
+			if (!Game.config.isScriptWatchdogInterruptEnabled()) continue;
+			
+			synchronized(call) {
+				if (call.finished) continue;
+				
+				try {
+					call.thread.stop();
+					call.stopped = true;
+				} catch (UnsupportedOperationException e) {
+					Logger.appendToWarningLog("Unable to stop script " + call.key + " on this JVM.");
+				}
+			}
+		}
+	}
+	
+	/**
+	 * A single call of a script function, created by {@link ScriptMetrics#begin(String, String)}
+	 * @author Jared Stephen
+	 *
+	 */
+	
+	public static class Call {
+		private final String key;
+		private final Thread thread;
+		private final long startTime;
+		private final long startAllocated;
+		private final long startCPUTime;
+		private final long profilerStart;
+		
+		private volatile boolean overBudget;
+		private boolean finished, stopped;
+		
+		private Call(String key) {
+			this.key = key;
+			this.thread = Thread.currentThread();
+			this.profilerStart = Profiler.begin();
+			this.startAllocated = getAllocatedBytes();
+			this.startCPUTime = cpuTimeBean == null ? 0 : cpuTimeBean.getCurrentThreadCpuTime();
+			this.startTime = System.nanoTime();
+		}
+	}
+	
+	/**
+	 * The statistics for one function of one script
+	 * @author Jared Stephen
+	 *
+	 */
+	
+	public static class Entry {
+		private final String key;
+		
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong totalNanos = new AtomicLong();
+		private final AtomicLong maxNanos = new AtomicLong();
+		private final AtomicLong allocatedBytes = new AtomicLong();
+		private final AtomicLong overBudgetCount = new AtomicLong();
+		
+		private Entry(String key) {
+			this.key = key;
+		}
+		
+		private void record(long duration, long allocated, boolean overBudget) {
+			count.incrementAndGet();
+			totalNanos.addAndGet(duration);
+			allocatedBytes.addAndGet(allocated);
+			if (overBudget) overBudgetCount.incrementAndGet();
+			
+			long max;
+			do {
+				max = maxNanos.get();
+			} while (duration > max && !maxNanos.compareAndSet(max, duration));
+		}
+		
+		/**
+		 * Returns the script location and function name, separated by a colon
+		 * @return the script location and function name
+		 */
+		
+		public String getKey() { return key; }
+		
+		/**
+		 * Returns the number of times the function has been called
+		 * @return the number of calls
+		 */
+		
+		public long getCount() { return count.get(); }
+		
+		/**
+		 * Returns the total time spent in the function, in nanoseconds
+		 * @return the total time
+		 */
+		
+		public long getTotalNanos() { return totalNanos.get(); }
+		
+		/**
+		 * Returns the longest time spent in one call of the function, in nanoseconds
+		 * @return the longest time
+		 */
+		
+		public long getMaxNanos() { return maxNanos.get(); }
+		
+		/**
+		 * Returns the total memory allocated by calls to the function, in bytes
+		 * @return the total memory allocated
+		 */
+		
+		public long getAllocatedBytes() { return allocatedBytes.get(); }
+		
+		/**
+		 * Returns the number of calls that ran longer than the script time budget
+		 * @return the number of calls over budget
+		 */
+		
+		public long getOverBudgetCount() { return overBudgetCount.get(); }
+		
+		@Override public String toString() {
+			return key + ", " + getCount() + ", " + String.format("%.2f, %.2f", getTotalNanos() / 1e6, getMaxNanos() / 1e6) +
+					", " + (getAllocatedBytes() / 1024) + ", " + getOverBudgetCount();
+		}
+	}
+}
@@ -64,7 +64,8 @@ public class Scriptable implements Saveable {
 	 * This object is immutable
 	 * 
 	 * The script contents are evaluated to determine the list of Script
-	 * functions available
+	 * functions available, unless the result is already held in the
+	 * {@link ScriptFunctionCache}
 	 * @param script the Script contents to be evaluated
 	 * @param scriptLocation the Resource Location of the script
 	 * @param scriptInline if true then the specified script is treated as inline,
@@ -81,21 +82,7 @@ public class Scriptable implements Saveable {
 		this.inline = scriptInline;
 		
 		if (script != null) {
-			JSEngine engine = Game.scriptEngineManager.getEngine();
-			
-			try {
-				engine.eval(script);
-			} catch (ScriptException e) {
-				Logger.appendToErrorLog("Error preparsing script at " + scriptLocation, e);
-			}
-
-			for (ScriptFunctionType type : ScriptFunctionType.values()) {
-				if (engine.hasFunction(type.toString())) {
-					scriptFunctions.add(type);
-				}
-			}
-			
-			engine.release();
+			scriptFunctions.addAll(ScriptFunctionCache.getFunctions(script, scriptLocation));
 		}
 	}
 	
@@ -222,22 +209,36 @@ public class Scriptable implements Saveable {
 	public Object executeFunction(String function, Object... arguments) {
 		Object returnValue = null;
 		
+		ScriptMetrics.Call call = ScriptMetrics.begin(scriptLocation, function);
+		
 		JSEngine engine = Game.scriptEngineManager.getEngine();
 		
 		try {
-			// script has already been pre-parsed; eval should not return any errors
-			engine.eval(script);
-			returnValue = engine.invokeFunction(function, Scriptable.createArgumentList(arguments));
-		} catch (ScriptException e) {
-			Logger.appendToErrorLog("Error invoking function " + function +
-					" for script " + scriptLocation, e);
-		} catch (NoSuchMethodException e) {
-			Logger.appendToErrorLog("Error invoking function " + function +
-					" for script " + scriptLocation, e);
+			try {
+				// script has already been pre-parsed; eval should not return any errors
+				engine.eval(script);
+				returnValue = engine.invokeFunction(function, Scriptable.createArgumentList(arguments));
+			} catch (ScriptException e) {
+				Logger.appendToErrorLog("Error invoking function " + function +
+						" for script " + scriptLocation, e);
+			} catch (NoSuchMethodException e) {
+				Logger.appendToErrorLog("Error invoking function " + function +
+						" for script " + scriptLocation, e);
+			} finally {
+				// after this, the watchdog can no longer stop this thread
+				ScriptMetrics.finish(call);
+			}
+		} catch (ThreadDeath e) {
+			if (!ScriptMetrics.isStopped(call)) throw e;
+			
+			Logger.appendToErrorLog("Function " + function + " for script " + scriptLocation +
+					" was stopped for exceeding the script time budget", e);
+		} finally {
+			engine.release();
+			
+			ScriptMetrics.end(call);
 		}
 		
-		engine.release();
-		
 		return returnValue;
 	}
 	
@@ -48,10 +48,11 @@ import net.sf.hale.loading.JSONOrderedObject;
 import net.sf.hale.loading.LoadGameException;
 import net.sf.hale.loading.ReferenceHandler;
 import net.sf.hale.loading.Saveable;
-import net.sf.hale.resource.ResourceType;
 import net.sf.hale.tileset.AreaElevationGrid;
 import net.sf.hale.tileset.AreaTileGrid;
 import net.sf.hale.util.AreaUtil;
+import net.sf.hale.util.GridUtil;
+import net.sf.hale.util.HexLine;
 import net.sf.hale.util.Logger;
 import net.sf.hale.util.Point;
 import net.sf.hale.util.PointImmutable;
@@ -94,6 +95,7 @@ public class Area implements EffectTarget, Saveable {
 			long seed = procedural.getSeed();
 			String seedStr = Long.toHexString(seed);
 			data.put("generatorSeed", seedStr);
+			data.put("generatorVersion", procedural.getVersion());
 		}
 		
 		// write out the explored matrix
@@ -253,22 +255,10 @@ public class Area implements EffectTarget, Saveable {
 		data.put("layers", tileGrid.writeToJSON());
 		
 		// write transparency
-		int[][] transparencyData = new int[transparency[0].length][transparency.length];
-		for (int x = 0; x < transparency.length; x++) {
-			for (int y = 0; y < transparency[x].length; y++) {
-				transparencyData[y][x] = transparency[x][y] ? 0 : 1;
-			}
-		}
-		data.put("transparencyGrid", transparencyData);
+		data.put("transparencyGrid", GridUtil.encodeBooleans(transparency));
 		
 		// write passability
-		int[][] passabilityData = new int[passable[0].length][passable.length];
-		for (int x = 0; x < passable.length; x++) {
-			for (int y = 0; y < passable[x].length; y++) {
-				passabilityData[y][x] = passable[x][y] ? 1 : 0;
-			}
-		}
-		data.put("passabilityGrid", passabilityData);
+		data.put("passabilityGrid", GridUtil.encodeBooleans(passable));
 		
 		// write elevation
 		data.put("elevationGrid", elevation.writeToJSON());
@@ -307,7 +297,7 @@ public class Area implements EffectTarget, Saveable {
 	private Area(String id, SimpleJSONObject loadedData, ReferenceHandler refHandler) throws LoadGameException {
 		this.id = id;
 		
-		SimpleJSONParser parser = new SimpleJSONParser("areas/" + id + ResourceType.JSON.getExtension());
+		SimpleJSONParser parser = AreaPreloader.getParser(id);
 		
 		if (parser.containsKey("name")) {
 			this.name = parser.get("name", null);
@@ -372,52 +362,66 @@ public class Area implements EffectTarget, Saveable {
 		
 		int x, y;
 		
+		// grids are either encoded strings or, in older area files, arrays of rows
+		
 		// parse transparency
-		SimpleJSONArray transparencyIn = parser.getArray("transparencyGrid");
-		y = 0;
-		for (SimpleJSONArrayEntry entry : transparencyIn) {
-			SimpleJSONArray rowIn = entry.getArray();
-			
-			x = 0;
-			for (SimpleJSONArrayEntry rowEntry : rowIn) {
-				int value = rowEntry.getInt(0);
-				this.transparency[x][y] = (value == 0 ? true : false);
-				x++;
+		if (parser.isString("transparencyGrid")) {
+			GridUtil.decodeBooleans(parser.get("transparencyGrid", null), this.transparency);
+		} else {
+			SimpleJSONArray transparencyIn = parser.getArray("transparencyGrid");
+			y = 0;
+			for (SimpleJSONArrayEntry entry : transparencyIn) {
+				SimpleJSONArray rowIn = entry.getArray();
+				
+				x = 0;
+				for (SimpleJSONArrayEntry rowEntry : rowIn) {
+					int value = rowEntry.getInt(0);
+					this.transparency[x][y] = (value == 0 ? true : false);
+					x++;
+				}
+				
+				y++;
 			}
-			
-			y++;
 		}
 		
 		// parse passability
-		SimpleJSONArray passabilityIn = parser.getArray("passabilityGrid");
-		y = 0;
-		for (SimpleJSONArrayEntry entry : passabilityIn) {
-			SimpleJSONArray rowIn = entry.getArray();
-			
-			x = 0;
-			for (SimpleJSONArrayEntry rowEntry : rowIn) {
-				int value = rowEntry.getInt(0);
-				this.passable[x][y] = (value == 1 ? true : false);
-				x++;
+		if (parser.isString("passabilityGrid")) {
+			GridUtil.decodeBooleans(parser.get("passabilityGrid", null), this.passable);
+		} else {
+			SimpleJSONArray passabilityIn = parser.getArray("passabilityGrid");
+			y = 0;
+			for (SimpleJSONArrayEntry entry : passabilityIn) {
+				SimpleJSONArray rowIn = entry.getArray();
+				
+				x = 0;
+				for (SimpleJSONArrayEntry rowEntry : rowIn) {
+					int value = rowEntry.getInt(0);
+					this.passable[x][y] = (value == 1 ? true : false);
+					x++;
+				}
+				
+				y++;
 			}
-			
-			y++;
 		}
 		
 		// parse elevation
-		SimpleJSONArray elevationIn = parser.getArray("elevationGrid");
-		y = 0;
-		for (SimpleJSONArrayEntry entry : elevationIn) {
-			SimpleJSONArray rowIn = entry.getArray();
-			
-			x = 0;
-			for (SimpleJSONArrayEntry rowEntry : rowIn) {
-				int value = rowEntry.getInt(0);
-				this.elevation.setElevation(x, y, (byte)value);
-				x++;
+		if (parser.isString("elevationGrid")) {
+			this.elevation.readFromJSON(parser.get("elevationGrid", null));
+		} else {
+			SimpleJSONArray elevationIn = parser.getArray("elevationGrid");
+			y = 0;
+			for (SimpleJSONArrayEntry entry : elevationIn) {
+				SimpleJSONArray rowIn = entry.getArray();
+				
+				x = 0;
+				for (SimpleJSONArrayEntry rowEntry : rowIn) {
+					int value = rowEntry.getInt(0);
+					this.elevation.setElevation(x, y, (byte)value);
+					x++;
+				}
+				
+				y++;
 			}
-			
-			y++;
 		}
 		
 		// parse tiles
@@ -426,6 +430,15 @@ public class Area implements EffectTarget, Saveable {
 			SimpleJSONObject layerIn = layersIn.getObject(layerID);
 			
 			for (String tileID : layerIn.keySet()) {
+				if (layerIn.isString(tileID)) {
+					int[] points = GridUtil.decodePoints(layerIn.get(tileID, null), width);
+					for (int i = 0; i < points.length; i += 2) {
+						this.tileGrid.addTile(tileID, layerID, points[i], points[i + 1]);
+					}
+					
+					continue;
+				}
+				
 				SimpleJSONArray tilePositionsIn = layerIn.getArray(tileID);
 				for (SimpleJSONArrayEntry entry : tilePositionsIn) {
 					SimpleJSONArray positionIn = entry.getArray();
@@ -510,6 +523,12 @@ public class Area implements EffectTarget, Saveable {
 			String seedHex = data.get("generatorSeed", null);
 			long seed = Long.parseLong(seedHex, 16);
 			procedural.setSeed(seed);
+			
+			if (data.containsKey("generatorVersion")) {
+				procedural.setVersion(data.get("generatorVersion", 0));
+			} else {
+				procedural.setVersion(Procedural.LegacyVersion);
+			}
 		}
 		
 		// parse entities
@@ -764,14 +783,14 @@ public class Area implements EffectTarget, Saveable {
 		int concealment = 0;
 		int obstructionsInPathConcealment = 0;
 		
-		Point from = attacker.getLocation().getCenteredScreenPoint();
-		Point to = AreaUtil.convertGridToScreenAndCenter(x, y);
+		int fromX = attacker.getLocation().getX();
+		int fromY = attacker.getLocation().getY();
 		
-		if (from.x == to.x && from.y == to.y) return 0;
+		if (fromX == x && fromY == y) return 0;
 		
-		// note that this list will include the defender's position but will not include the attacker's position.
+		// note that this path will include the defender's position but will not include the attacker's position.
 		// So, concealment on the attacker's tile doesn't affect this calculation
-		List<Point> minPath = AreaUtil.findIntersectingHexes(from.x, from.y, to.x, to.y);
+		int[] minPath = HexLine.getOffsets(fromX, fromY, x, y);
 		
 		// we compute the average concealment of all the tiles in the path.  However, the straight line
 		// path might cross more tiles than are neccessary, adding too much concealment.
@@ -779,20 +798,23 @@ public class Area implements EffectTarget, Saveable {
 		// between the points rather than the path length.
 		
 		int areaPathConcealment = 0;
-		for (Point p : minPath) {
-			areaPathConcealment += effects.getBonusAt(Bonus.Type.Concealment, p.x, p.y);
-			areaPathConcealment -= effects.getBonusAt(Bonus.Type.ConcealmentNegation, p.x, p.y);
+		for (int i = 0; i < minPath.length; i += 2) {
+			int px = fromX + minPath[i];
+			int py = fromY + minPath[i + 1];
+			
+			areaPathConcealment += effects.getBonusAt(Bonus.Type.Concealment, px, py);
+			areaPathConcealment -= effects.getBonusAt(Bonus.Type.ConcealmentNegation, px, py);
 			
-			if (!this.transparency[p.x][p.y]) obstructionsInPathConcealment += 15;
+			if (!this.transparency[px][py]) obstructionsInPathConcealment += 15;
 			else {
-				Creature c = this.getCreatureAtGridPoint(p);
+				Creature c = this.getCreatureAtGridPoint(px, py);
 				if (c != null && c != defender) obstructionsInPathConcealment += 15;
 			}
 		}
 		
 		obstructionsInPathConcealment = Math.min(obstructionsInPathConcealment, 30);
 
-		float areaPathConcealmentAverage = ((float)areaPathConcealment) / ((float)minPath.size());
+		float areaPathConcealmentAverage = ((float)areaPathConcealment) / ((float)(minPath.length / 2));
 		
 		concealment += (areaPathConcealmentAverage * attacker.getLocation().getDistance(x, y));
 		
@@ -826,6 +848,33 @@ public class Area implements EffectTarget, Saveable {
 		return getConcealment(attacker, defender, defender.getLocation().getX(), defender.getLocation().getY());
 	}
 	
+	/**
+	 * Returns true if the straight line between the centers of the two specified grid points
+	 * does not pass through any opaque tile or any creature, other than at the start and end
+	 * points.  This is the same line used to find obstructions when computing concealment
+	 * @param from the starting grid point
+	 * @param to the ending grid point
+	 * @return whether there is a clear line between the points
+	 */
+	
+	public boolean hasClearLine(Point from, Point to) {
+		int[] path = HexLine.getOffsets(from.x, from.y, to.x, to.y);
+		
+		// the last point in the path is the end point, which is not checked
+		for (int i = 0; i < path.length - 2; i += 2) {
+			int px = from.x + path[i];
+			int py = from.y + path[i + 1];
+			
+			if (px < 0 || py < 0 || px >= this.width || py >= this.height) return false;
+			
+			if (!this.transparency[px][py]) return false;
+			
+			if (this.getCreatureAtGridPoint(px, py) != null) return false;
+		}
+		
+		return true;
+	}
+	
 	public boolean[][] getMatrixOfSize() {
 		boolean[][] matrix = new boolean[width][height];
 		
@@ -21,6 +21,8 @@ package net.sf.hale.area;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -514,18 +516,31 @@ public class AreaEntityList implements Saveable, Iterable<Entity> {
 	 * @return the list of visible creatures
 	 */
 	
-	public List<Creature> getVisibleCreatures(Creature parent) {
+	public synchronized List<Creature> getVisibleCreatures(Creature parent) {
 		List<Creature> creatures = new ArrayList<Creature>();
 		
-		for (int i = 0; i < entities.length; i++) {
-			for (int j = 0; j < entities[0].length; j++) {
-				if (!parent.hasVisibilityInCurrentArea(i, j)) continue;
+		// there are far fewer creatures than grid points, so check each creature
+		// rather than each visible point
+		for (Entity entity : entitiesSet) {
+			if (!(entity instanceof Creature)) continue;
+			
+			int x = entity.getLocation().getX();
+			int y = entity.getLocation().getY();
+			
+			if (!parent.hasVisibilityInCurrentArea(x, y)) continue;
+			
+			// only the first creature at each point is visible
+			if (getCreature(x, y) == entity) creatures.add((Creature)entity);
+		}
+		
+		// keep the grid order of the points
+		Collections.sort(creatures, new Comparator<Creature>() {
+			@Override public int compare(Creature a, Creature b) {
+				int dx = a.getLocation().getX() - b.getLocation().getX();
 				
-				Creature creature = getCreature(i, j);
-				if (creature != null)
-					creatures.add(creature);
+				return dx != 0 ? dx : a.getLocation().getY() - b.getLocation().getY();
 			}
-		}
+		});
 		
 		return creatures;
 	}
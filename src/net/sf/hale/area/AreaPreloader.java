@@ -0,0 +1,140 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.area;
+
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import net.minidev.json.JSONObject;
+import net.minidev.json.parser.JSONParser;
+import net.sf.hale.resource.ResourceManager;
+import net.sf.hale.resource.ResourceType;
+import net.sf.hale.util.Logger;
+import net.sf.hale.util.SimpleJSONParser;
+import net.sf.hale.util.WorkerPool;
+
+/**
+ * Speculatively reads and parses area resource files on the background thread,
+ * so that an area the party is likely to travel to can be created without waiting
+ * on the file.  Areas are preloaded when the player hovers the mouse over an area
+ * transition that can be activated, or over a location on the world map.
+ *
+ * Only the resource data is preloaded.  The file is streamed directly into the
+ * parser, without passing through the resource cache, so preloading an area that is
+ * never visited does not push other resources out of the cache.  Creating the area
+ * itself adds entities and runs scripts, which must happen on the main thread.  At
+ * most a few areas are held; the oldest preloaded area is discarded when another is
+ * added, and each preloaded area is discarded once it is used.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class AreaPreloader {
+	private static final int MaxPreloadedAreas = 3;
+	
+	// insertion ordered, so the first entry is the oldest
+	private static final Map<String, Future<JSONObject>> preloaded = new LinkedHashMap<String, Future<JSONObject>>();
+	
+	/**
+	 * Starts preloading the area with the specified ID in the background, if it
+	 * is not already being preloaded
+	 * @param areaID the ID of the area
+	 */
+	
+	public static synchronized void preload(String areaID) {
+		if (areaID == null || preloaded.containsKey(areaID)) return;
+		
+		final String resource = getResource(areaID);
+		if (!ResourceManager.hasResource(resource)) return;
+		
+		Future<JSONObject> future = WorkerPool.getBackgroundPool().submit(new Callable<JSONObject>() {
+			@Override public JSONObject call() throws Exception {
+				Reader reader = ResourceManager.getReader(resource);
+				try {
+					return (JSONObject)new JSONParser(JSONParser.MODE_PERMISSIVE).parse(reader);
+				} finally {
+					reader.close();
+				}
+			}
+		});
+		
+		preloaded.put(areaID, future);
+		
+		Iterator<Future<JSONObject>> iter = preloaded.values().iterator();
+		while (preloaded.size() > MaxPreloadedAreas) {
+			iter.next().cancel(false);
+			iter.remove();
+		}
+	}
+	
+	/**
+	 * Returns a parser for the resource file of the area with the specified ID.  If
+	 * the area has finished preloading, the preloaded data is used.  Otherwise, the
+	 * resource is parsed on the calling thread.
+	 * @param areaID the ID of the area
+	 * @return a parser for the area resource
+	 */
+	
+	public static SimpleJSONParser getParser(String areaID) {
+		String resource = getResource(areaID);
+		
+		Future<JSONObject> future;
+		synchronized(AreaPreloader.class) {
+			future = preloaded.remove(areaID);
+		}
+		
+		if (future != null) {
+			if (future.isDone()) {
+				try {
+					return new SimpleJSONParser(future.get(), resource);
+				} catch (Exception e) {
+					Logger.appendToWarningLog("Error preloading area " + areaID + ", loading directly.");
+				}
+			} else {
+				// don't wait on the background thread, which may be busy with other work
+				future.cancel(false);
+			}
+		}
+		
+		return new SimpleJSONParser(resource);
+	}
+	
+	/**
+	 * Discards all preloaded areas.  This should be called when the campaign
+	 * or its resources change
+	 */
+	
+	public static synchronized void clear() {
+		for (Future<JSONObject> future : preloaded.values()) {
+			future.cancel(false);
+		}
+		
+		preloaded.clear();
+	}
+	
+	private static String getResource(String areaID) {
+		return "areas/" + areaID + ResourceType.JSON.getExtension();
+	}
+}
@@ -1,5 +1,9 @@
 package net.sf.hale.area;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
 import net.sf.hale.Game;
 import net.sf.hale.rules.Dice;
 import net.sf.hale.tileset.Border;
@@ -103,38 +107,79 @@ public class GridGenerator implements Generator {
 			}
 		}
 		
-		// add elevation border tiles
-		for (int x = 0; x < area.getWidth(); x++) {
+		// find elevation border tiles for each chunk in parallel
+		List<Callable<List<ElevationMatch>>> tasks = new ArrayList<Callable<List<ElevationMatch>>>();
+		for (int chunkX = 0; chunkX < area.getWidth(); chunkX += Procedural.ChunkWidth) {
+			final int startX = chunkX;
+			final int endX = Math.min(chunkX + Procedural.ChunkWidth, area.getWidth());
+			
+			tasks.add(new Callable<List<ElevationMatch>>() {
+				@Override public List<ElevationMatch> call() {
+					return findElevationMatches(startX, endX);
+				}
+			});
+		}
+		
+		// border tiles may fall in adjacent chunks, so all tiles are added from this
+		// thread once every chunk is done, in the same order as a serial pass
+		for (List<ElevationMatch> matches : Procedural.runChunks(tasks, area)) {
+			for (ElevationMatch match : matches) {
+				addElevationTiles(match.elevation, match.point);
+			}
+		}
+	}
+	
+	/*
+	 * Finds the elevation rules met at each point in the specified range of columns.
+	 * This only reads the elevation grid, so chunks may be searched concurrently
+	 */
+	
+	private List<ElevationMatch> findElevationMatches(int startX, int endX) {
+		List<ElevationMatch> matches = new ArrayList<ElevationMatch>();
+		
+		for (int x = startX; x < endX; x++) {
 			for (int y = 0; y < area.getHeight(); y++) {
 				Point p = new Point(x, y);
-
+				
 				for (ElevationList.Elevation elevation : tileset.getElevationList().
 						getMatchingElevationRules(area.getElevationGrid(), p)) {
-
-					Border border = elevation.getBorder();
-
-					for (BorderTile borderTile : border) {
-						Point borderPoint = borderTile.getPosition().getRelativePoint(p);
-
-						PointImmutable bP = new PointImmutable(borderPoint);
-						if (!bP.isWithinBounds(area)) continue;
-
-						area.getTileGrid().addTile(borderTile.getID(), borderTile.getLayerID(), bP.x, bP.y);
-					}
-					
-					if (elevation.getImpassable() != null) {
-						Point impass = elevation.getImpassable().getRelativePoint(p);
-						
-						if (area.isValidPoint(impass)) {
-							area.getPassability()[impass.x][impass.y] = false;
-						}
-						
-					}
-					
+					matches.add(new ElevationMatch(elevation, p));
 				}
 			}
 		}
 		
+		return matches;
+	}
+	
+	private void addElevationTiles(ElevationList.Elevation elevation, Point p) {
+		Border border = elevation.getBorder();
+		
+		for (BorderTile borderTile : border) {
+			Point borderPoint = borderTile.getPosition().getRelativePoint(p);
+			
+			PointImmutable bP = new PointImmutable(borderPoint);
+			if (!bP.isWithinBounds(area)) continue;
+			
+			area.getTileGrid().addTile(borderTile.getID(), borderTile.getLayerID(), bP.x, bP.y);
+		}
+		
+		if (elevation.getImpassable() != null) {
+			Point impass = elevation.getImpassable().getRelativePoint(p);
+			
+			if (area.isValidPoint(impass)) {
+				area.getPassability()[impass.x][impass.y] = false;
+			}
+		}
+	}
+	
+	private static class ElevationMatch {
+		private final ElevationList.Elevation elevation;
+		private final Point point;
+		
+		private ElevationMatch(ElevationList.Elevation elevation, Point point) {
+			this.elevation = elevation;
+			this.point = point;
+		}
 	}
 	
 	private void generateMaze(int[][] cells, int x, int y) {
@@ -1,25 +1,67 @@
 package net.sf.hale.area;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
 import net.sf.hale.Game;
 import net.sf.hale.rules.Dice;
 import net.sf.hale.tileset.TerrainTile;
 import net.sf.hale.tileset.TerrainType;
 import net.sf.hale.tileset.Tileset;
 import net.sf.hale.util.PointImmutable;
+import net.sf.hale.util.RandomStream;
 import net.sf.hale.util.SimpleJSONObject;
+import net.sf.hale.util.WorkerPool;
 
 /**
  * For handling of procedural generation of terrain within an area
+ * 
+ * The area is divided into chunks of {@link #ChunkWidth} columns which are
+ * generated in parallel.  Each chunk draws from its own random stream, derived
+ * from the seed and the chunk index, and the results of all chunks are applied
+ * to the area in chunk order, so the generated area depends only on the seed
+ * and not on the number of threads used.
  * @author Jared
  *
  */
 
 public class Procedural {
+	/**
+	 * The generator version for areas saved before chunked generation, which used a
+	 * single random stream for the whole area
+	 */
+	
+	public static final int LegacyVersion = 1;
+	
+	/**
+	 * The generator version used for newly generated areas
+	 */
+	
+	public static final int CurrentVersion = 2;
+	
+	/**
+	 * The number of columns in each independently generated chunk of an area
+	 */
+	
+	public static final int ChunkWidth = 16;
+	
+	// stream indices for random streams that are not tied to a chunk
+	private static final long BaseTerrainStream = 0x100000000L;
+	
+	/**
+	 * The stream index for the random stream used to generate the layout
+	 * of the area, such as the maze of a GridGenerator
+	 */
+	
+	public static final long LayoutStream = 0x200000000L;
+	
 	private final Tileset tileset;
 	private final Area area;
 	private final String baseTerrain;
 	
 	private long seed;
+	private int version;
 	private Dice random;
 	
 	private final Generator generator;
@@ -37,6 +79,7 @@ public class Procedural {
 		this.baseTerrain = data.get("baseTerrain", null);
 		
 		this.seed = Game.dice.randSeed();
+		this.version = CurrentVersion;
 		
 		if (data.containsKey("gridGenerator")) {
 			generator = new GridGenerator(area, data.getObject("gridGenerator"));
@@ -63,31 +106,124 @@ public class Procedural {
 		this.seed = seed;
 	}
 	
+	/**
+	 * Returns the version of the generation algorithm used by this generator.  The
+	 * same seed produces the same area only with the same version
+	 * @return the generator version
+	 */
+	
+	public int getVersion() {
+		return this.version;
+	}
+	
+	/**
+	 * Sets the version of the generation algorithm used by this generator.  This
+	 * should be set to the version that an area was saved with, so that the
+	 * area is regenerated identically
+	 * @param version the generator version
+	 */
+	
+	public void setVersion(int version) {
+		this.version = version;
+	}
+	
 	/**
 	 * Generates layers and tiles for the parent area based on the attributes of this generator
 	 */
 	
 	public void generateLayers() {
-		this.random = new Dice(this.seed);
-		
-		// fill base terrain
 		TerrainType baseTerrain = tileset.getTerrainType(this.baseTerrain);
 		
-		for (int x = 0; x < area.getWidth(); x++) {
-			for (int y = 0; y < area.getHeight(); y++) {
-				TerrainTile tile = baseTerrain.getRandomTerrainTile(random);
-				
-				area.getTileGrid().addTile(tile.getID(), tile.getLayerID(), x, y);
-				
-				area.getTransparency()[x][y] = true;
-				area.getPassability()[x][y] = true;
+		if (version == LegacyVersion) {
+			// the base terrain and the generator share one stream
+			this.random = Dice.createLegacy(this.seed);
+			
+			for (int x = 0; x < area.getWidth(); x++) {
+				for (int y = 0; y < area.getHeight(); y++) {
+					setBaseTerrain(baseTerrain.getRandomTerrainTile(random), x, y);
+				}
 			}
+			
+		} else {
+			this.random = new Dice(getStreamSeed(seed, LayoutStream));
+			
+			fillBaseTerrain(baseTerrain);
 		}
 		
 		generator.setDice(this.random);
 		generator.generate();
 	}
 	
+	private void fillBaseTerrain(final TerrainType baseTerrain) {
+		final int height = area.getHeight();
+		
+		List<Callable<TerrainTile[]>> tasks = new ArrayList<Callable<TerrainTile[]>>();
+		for (int chunkX = 0; chunkX < area.getWidth(); chunkX += ChunkWidth) {
+			final int startX = chunkX;
+			final int endX = Math.min(chunkX + ChunkWidth, area.getWidth());
+			
+			tasks.add(new Callable<TerrainTile[]>() {
+				@Override public TerrainTile[] call() {
+					Dice chunkRandom = new Dice(getStreamSeed(seed, BaseTerrainStream + startX / ChunkWidth));
+					
+					TerrainTile[] tiles = new TerrainTile[(endX - startX) * height];
+					for (int i = 0; i < tiles.length; i++) {
+						tiles[i] = baseTerrain.getRandomTerrainTile(chunkRandom);
+					}
+					
+					return tiles;
+				}
+			});
+		}
+		
+		List<TerrainTile[]> chunks = runChunks(tasks, area);
+		
+		// the tile grid is not thread safe, so tiles are added from this thread
+		for (int chunk = 0; chunk < chunks.size(); chunk++) {
+			TerrainTile[] tiles = chunks.get(chunk);
+			
+			for (int i = 0; i < tiles.length; i++) {
+				setBaseTerrain(tiles[i], chunk * ChunkWidth + i / height, i % height);
+			}
+		}
+	}
+	
+	private void setBaseTerrain(TerrainTile tile, int x, int y) {
+		area.getTileGrid().addTile(tile.getID(), tile.getLayerID(), x, y);
+		
+		area.getTransparency()[x][y] = true;
+		area.getPassability()[x][y] = true;
+	}
+	
+	/**
+	 * Runs the specified chunk generation tasks in parallel and returns their results,
+	 * in the same order as the tasks
+	 * @param tasks the list of tasks, one per chunk
+	 * @param area the area being generated
+	 * @return the list of results
+	 */
+	
+	protected static <T> List<T> runChunks(List<Callable<T>> tasks, Area area) {
+		try {
+			return WorkerPool.invokeAll(tasks);
+		} catch (Exception e) {
+			throw new IllegalStateException("Error generating area " + area.getID(), e);
+		}
+	}
+	
+	/**
+	 * Returns the seed for the random stream with the specified index.  Streams with
+	 * different indices are statistically independent, even for adjacent indices
+	 * or seeds.
+	 * @param seed the base seed of the generator
+	 * @param stream the index of the stream
+	 * @return the seed for the stream
+	 */
+	
+	public static long getStreamSeed(long seed, long stream) {
+		return RandomStream.getStreamSeed(seed, stream);
+	}
+	
 	/**
 	 * Returns a list of the 6 hex tiles adjacent to the specified grid coordinates
 	 * @param gridX
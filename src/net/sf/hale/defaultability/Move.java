@@ -31,6 +31,7 @@ import net.sf.hale.entity.PC;
 import net.sf.hale.entity.Path;
 import net.sf.hale.interfacelock.MovementHandler;
 import net.sf.hale.util.AreaUtil;
+import net.sf.hale.util.DistanceField;
 import net.sf.hale.util.Logger;
 import net.sf.hale.util.Point;
 
@@ -45,6 +46,10 @@ import net.sf.hale.util.Point;
  */
 
 public class Move implements DefaultAbility {
+	// the distance field for the most recently moved or hovered player character,
+	// shared so that checking moves to many points only searches once
+	private static DistanceField playerField;
+	
 	// stores the path that is computed in canActivate() for use in activate()
 	private Path computedPath;
 	
@@ -57,6 +62,8 @@ public class Move implements DefaultAbility {
 	
 	private boolean allowPartyMove = true;
 	
+	private DistanceField distanceField;
+	
 	/**
 	 * Sets whether this move will attempt a party move.  Outside of combat, moving one PC
 	 * while the game is in party movement mode will move the entire party, by default.
@@ -81,6 +88,17 @@ public class Move implements DefaultAbility {
 		this.truncatePath = truncatePath;
 	}
 	
+	/**
+	 * Sets the distance field used to find the path for this move.  If the field is
+	 * for the moving creature and is still valid, the path is taken from the field rather
+	 * than from a new search.  By default, no field is used.
+	 * @param distanceField the distance field, or null to always search
+	 */
+	
+	public void setDistanceField(DistanceField distanceField) {
+		this.distanceField = distanceField;
+	}
+	
 	/**
 	 * Adds a callback to the list of callbacks that will be added to the
 	 * InterfaceMovementLock that is created by this Object when implementing
@@ -130,7 +148,18 @@ public class Move implements DefaultAbility {
 		// if parent is already at targetPosition
 		if (parent.getLocation().equals(targetPosition)) return false;
 		
-		computedPath = parent.findPathTo(targetPosition, distanceAway);
+		DistanceField field = distanceField;
+		if (field != null && (field.getMover() != parent || field.isIgnoringCreatures() || !field.isValid())) {
+			field = null;
+		}
+		
+		if (field == null && parent.isPlayerFaction()) field = getPlayerField(parent);
+		
+		if (field != null) {
+			computedPath = field.getPathWithin(targetPosition.toPoint(), distanceAway);
+		} else {
+			computedPath = parent.findPathTo(targetPosition, distanceAway);
+		}
 		
 		// check to see if a valid path exists up to distanceAway from targetPosition
 		if (computedPath == null) {
@@ -151,6 +180,21 @@ public class Move implements DefaultAbility {
 		return true;
 	}
 	
+	/*
+	 * Returns the shared distance field for the specified player character, creating a new
+	 * one when the character has moved or anything affecting its movement has changed.
+	 * Mouse hovering checks moves to a new point with each mouse movement, so this avoids
+	 * a new search for each point while the situation is unchanged
+	 */
+	
+	private static synchronized DistanceField getPlayerField(Creature parent) {
+		if (playerField == null || playerField.getMover() != parent || !playerField.isValid()) {
+			playerField = new DistanceField(parent, false);
+		}
+		
+		return playerField;
+	}
+	
 	@Override public boolean canActivate(PC parent, Location targetPosition) {
 		return canMove(parent, targetPosition, 0);
 	}
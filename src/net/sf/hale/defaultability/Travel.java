@@ -47,6 +47,9 @@ public class Travel implements DefaultAbility {
 		
 		// if target is an active (visible) area transition
 		if (target != null && target.isActivated()) {
+			// the player may be about to travel, so start loading the destination
+			Game.curCampaign.preloadArea(target, false);
+			
 			move = new Move();
 			
 			// allow any member of the player character party to travel
@@ -21,8 +21,10 @@ package net.sf.hale.entity;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import net.sf.hale.Game;
 import net.sf.hale.area.Area;
@@ -55,7 +57,7 @@ public class Encounter implements Iterable<Creature> {
 	private List<Creature> creaturesInArea;
 	
 	private boolean aiActive;
-	private List<Creature> knownHostiles;
+	private Set<Creature> knownHostiles;
 	
 	private int currencyToReward;
 	private int xpToReward;
@@ -151,7 +153,7 @@ public class Encounter implements Iterable<Creature> {
 		this.faction = template.getDefaultFaction();
 		
 		this.aiActive = false;
-		this.knownHostiles = new ArrayList<Creature>();
+		this.knownHostiles = new LinkedHashSet<Creature>();
 	}
 	
 	/**
@@ -177,16 +179,11 @@ public class Encounter implements Iterable<Creature> {
 	 * Checks if the specified hostile is already in the list of hostiles, and adds
 	 * it if it is not
 	 * @param hostile
+	 * @return true if the hostile was added, false if it was already known
 	 */
 	
-	public void checkAddHostile(Creature hostile) {
-		for (Creature c : knownHostiles) {
-			if (c == hostile) {
-				return;
-			}
-		}
-		
-		knownHostiles.add(hostile);
+	public boolean checkAddHostile(Creature hostile) {
+		return knownHostiles.add(hostile);
 	}
 	
 	/**
@@ -194,21 +191,27 @@ public class Encounter implements Iterable<Creature> {
 	 * Creatures in this encounter will have knowledge of this hostile in their AI
 	 * scripts
 	 * @param hostile
+	 * @return true if the hostile was added, false if it was already known
 	 */
 	
-	public void addHostile(Creature hostile) {
-		checkAddHostile(hostile);
+	public boolean addHostile(Creature hostile) {
+		return checkAddHostile(hostile);
 	}
 	
 	/**
 	 * Adds all the specified creatures as hostiles.  See {@link #addHostile(Creature)}
 	 * @param hostiles
+	 * @return true if any of the hostiles were added, false if all were already known
 	 */
 	
-	public void addHostiles(List<Creature> hostiles) {
+	public boolean addHostiles(List<Creature> hostiles) {
+		boolean added = false;
+		
 		for (Creature creature : hostiles) {
-			checkAddHostile(creature);
+			if (checkAddHostile(creature)) added = true;
 		}
+		
+		return added;
 	}
 	
 	/**
@@ -44,6 +44,9 @@ public class EntityManager {
 	// stored creatures with already added levels and stats
 	private static Map<String, Creature> creatures = new HashMap<String, Creature>();
 	
+	// shared items used only for display, keyed by ID and quality
+	private static Map<String, Item> displayItems = new HashMap<String, Item>();
+	
 	/**
 	 * Adds the specified PC to the list of available creatures.  This method is only
 	 * used when loading a PC from save game data, as the data might not be accessible
@@ -211,6 +214,61 @@ public class EntityManager {
 		return item;
 	}
 	
+	/**
+	 * Gets a new instance of the item with the same template and quality as the
+	 * specified item.  This is used to obtain an item that may be modified from a
+	 * display item, see {@link #getDisplayItem(String, String)}
+	 * @param item the item to match
+	 * @return a new Item with the same template and quality as the specified item
+	 */
+	
+	public static Item getItem(Item item) {
+		return getItem(item.getTemplate().getID(), item.getQuality());
+	}
+	
+	/**
+	 * Returns a shared item with the specified ID and quality, for use when showing
+	 * item information such as the icon, name, and value in item listings.  The same
+	 * item is returned for every call with the same ID and quality, so the returned item
+	 * must never be modified, equipped, or added to an area.  Use
+	 * {@link #getItem(String, String)} or {@link #getItem(Item)} to obtain an item for
+	 * these purposes.
+	 * @param entityID the ID of the item template
+	 * @param quality the items quality, or null to not set a quality
+	 * @return the shared display item with the specified ID and quality
+	 */
+	
+	public static Item getDisplayItem(String entityID, String quality) {
+		String key = quality == null ? entityID : entityID + "\n" + quality;
+		
+		Item item = displayItems.get(key);
+		
+		// the template may have been replaced, such as when an item is created
+		if (item == null || item.getTemplate() != getItemTemplate(entityID)) {
+			item = getItem(entityID, quality);
+			displayItems.put(key, item);
+		}
+		
+		return item;
+	}
+	
+	/**
+	 * Returns a shared item with the specified ID and the default quality for that
+	 * item.  See {@link #getDisplayItem(String, String)}
+	 * @param entityID the ID of the item template
+	 * @return the shared display item with the specified ID, or null if no such template exists
+	 */
+	
+	public static Item getDisplayItem(String entityID) {
+		ItemTemplate template = getItemTemplate(entityID);
+		
+		if (template == null) return null;
+		
+		Quality quality = template.getDefaultQuality();
+		
+		return getDisplayItem(entityID, quality == null ? null : quality.getName());
+	}
+	
 	/**
 	 * Gets an instance of the container with the specified ID.  If the template for
 	 * this container has not yet been loaded, it is created from the appropriate
@@ -366,5 +424,6 @@ public class EntityManager {
 	public static void clear() {
 		templates.clear();
 		creatures.clear();
+		displayItems.clear();
 	}
 }
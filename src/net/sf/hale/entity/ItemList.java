@@ -21,8 +21,10 @@ package net.sf.hale.entity;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import net.sf.hale.Game;
 import net.sf.hale.loading.JSONOrderedObject;
@@ -35,7 +37,11 @@ import net.sf.hale.util.SimpleJSONObject;
 
 /**
  * A list of entries.  Each entry specified a unique item ID and quality
- * combination, as well as a quantity
+ * combination, as well as a quantity.
+ * 
+ * The list keeps an index of entries by item ID, as well as running totals of the
+ * quantity, weight, and value of all items, which are updated as items are added and
+ * removed.  The totals are always up to date by the time any listener is notified.
  * @author Jared
  *
  */
@@ -44,6 +50,13 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	private List<Listener> listeners;
 	private List<Entry> entries;
 	
+	// all entries with a given item ID, in the same order as they appear in entries
+	private Map<String, List<Entry>> entriesByID;
+	
+	private long totalQuantity;
+	private long totalWeightInGrams;
+	private long totalValueInCPOver100;
+	
 	@Override public Object save() {
 		Object[] data = new Object[entries.size()];
 		
@@ -80,7 +93,7 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 			int quantity = obj.get("quantity", 0);
 			
 			if (EntityManager.getItemTemplate(id) != null) {
-				entries.add(new Entry(id, quality, quantity));
+				addEntry(new Entry(id, quality, quantity));
 			}
 		}
 	}
@@ -96,7 +109,8 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 		
 		/**
 		 * Called whenever an item is added to this list.  This includes
-		 * adding a new entry or increasing the quantity of an entry
+		 * adding a new entry or increasing the quantity of an entry.  The
+		 * totals of the list already include the added items when this is called
 		 */
 		
 		public void itemListItemAdded(String id, Quality quality, int quantity);
@@ -122,6 +136,10 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 		private final String quality;
 		private int quantity;
 		
+		// the weight and value of a single item, cached for the running totals
+		private final int weightInGrams;
+		private final int valueInCPOver100;
+		
 		private Entry(String id, Quality quality, int quantity) {
 			this.id = id;
 			
@@ -132,12 +150,41 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 			}
 			
 			this.quantity = quantity;
+			
+			ItemTemplate template = EntityManager.getItemTemplate(id);
+			if (template == null) {
+				this.weightInGrams = 0;
+				this.valueInCPOver100 = 0;
+			} else {
+				this.weightInGrams = template.getWeightInGrams();
+				
+				if (template.hasQuality() && quality != null) {
+					this.valueInCPOver100 = template.getValueInCPOver100() * quality.getValueAdjustment() / 100;
+				} else {
+					this.valueInCPOver100 = template.getValueInCPOver100();
+				}
+			}
 		}
 		
 		private Entry(Entry other) {
 			this.id = other.id;
 			this.quality = other.quality;
 			this.quantity = other.quantity;
+			this.weightInGrams = other.weightInGrams;
+			this.valueInCPOver100 = other.valueInCPOver100;
+		}
+		
+		/*
+		 * Returns true if this entry has the specified quality, or no quality
+		 * if the specified quality is null
+		 */
+		
+		private boolean hasQuality(Quality quality) {
+			if (quality == null) {
+				return this.quality == null;
+			} else {
+				return quality.getName().equals(this.quality);
+			}
 		}
 		
 		/**
@@ -206,6 +253,21 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 			}
 		}
 		
+		/**
+		 * Returns the shared display item with id and quality matching the attributes
+		 * of this entry.  The returned item may only be used to show information about
+		 * the item and must not be modified; see {@link EntityManager#getDisplayItem(String, String)}
+		 * @return the display item for this entry
+		 */
+		
+		public Item getDisplayItem() {
+			if (hasQuality()) {
+				return EntityManager.getDisplayItem(id, quality);
+			} else {
+				return EntityManager.getDisplayItem(id);
+			}
+		}
+		
 		@Override public int compareTo(Entry other) {
 			ItemTemplate thisTemplate = EntityManager.getItemTemplate(this.id);
 			ItemTemplate otherTemplate = EntityManager.getItemTemplate(other.id);
@@ -234,6 +296,7 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	
 	public ItemList() {
 		entries = new ArrayList<Entry>();
+		entriesByID = new HashMap<String, List<Entry>>();
 		listeners = new ArrayList<Listener>();
 	}
 	
@@ -247,7 +310,7 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 		this();
 		
 		for (Entry entry : other.entries) {
-			this.entries.add(new Entry(entry));
+			addEntry(new Entry(entry));
 		}
 	}
 	
@@ -295,6 +358,8 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 				EntityManager.getItem(entry.id, entry.quality);
 			} catch (Exception e) {
 				iter.remove();
+				removeFromIndex(entry);
+				updateTotals(entry, -entry.quantity);
 			}
 		}
 	}
@@ -305,7 +370,7 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	
 	public void clear() {
 		for (int i = entries.size() - 1; i >= 0; i--) {
-			removeEntry(i);
+			removeEntry(entries.get(i));
 		}
 	}
 	
@@ -349,13 +414,12 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 			quality = null;
 		}
 		
-		int index = findEntry(id, quality);
+		Entry entry = findEntry(id, quality);
 		
-		if (index == -1) {
-			Entry entry = new Entry(id, quality, quantity);
-			entries.add(entry);
+		if (entry == null) {
+			addEntry(new Entry(id, quality, quantity));
 		} else {
-			entries.get(index).quantity += quantity;
+			changeQuantity(entry, quantity);
 		}
 		
 		for (Listener listener : listeners) {
@@ -436,22 +500,24 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	public int remove(String id, int quantity) {
 		int qtyLeftToRemove = quantity;
 		
-		for (int i = 0; i < entries.size(); i++) {
-			if (!entries.get(i).id.equals(id)) continue;
-			
-			if (entries.get(i).quantity > qtyLeftToRemove) {
-				entries.get(i).quantity -= qtyLeftToRemove;
+		List<Entry> matches = entriesByID.get(id);
+		if (matches == null) return 0;
+		
+		// copy the list, as removing entries will modify it
+		for (Entry entry : new ArrayList<Entry>(matches)) {
+			if (entry.quantity > qtyLeftToRemove) {
+				changeQuantity(entry, -qtyLeftToRemove);
 				// the entire quantity was removed
 				qtyLeftToRemove = 0;
 				break;
-			} else if (entries.get(i).quantity == qtyLeftToRemove) {
-				removeEntry(i);
+			} else if (entry.quantity == qtyLeftToRemove) {
+				removeEntry(entry);
 				qtyLeftToRemove = 0;
 				break;
 			} else {
 				// part of the quantity was removed, keep looking
-				qtyLeftToRemove -= entries.get(i).quantity;
-				removeEntry(i);
+				qtyLeftToRemove -= entry.quantity;
+				removeEntry(entry);
 			}
 		}
 		
@@ -468,21 +534,21 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	 */
 	
 	public int remove(String id, Quality quality, int quantity) {
-		int index = findEntry(id, quality);
+		Entry entry = findEntry(id, quality);
 		
-		if (index == -1) {
+		if (entry == null) {
 			return 0;
 		} else {
-			int curQuantity = entries.get(index).quantity;
+			int curQuantity = entry.quantity;
 			
 			if (curQuantity > quantity) {
-				entries.get(index).quantity = curQuantity - quantity;
+				changeQuantity(entry, -quantity);
 				return quantity;
 			} else if (curQuantity == quantity) {
-				removeEntry(index);
+				removeEntry(entry);
 				return quantity;
 			} else {
-				removeEntry(index);
+				removeEntry(entry);
 				return curQuantity;
 			}
 		}
@@ -520,12 +586,12 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	 */
 	
 	public boolean contains(Item item, int quantity) {
-		int index = findEntry(item.getTemplate().getID(), item.getQuality());
+		Entry entry = findEntry(item.getTemplate().getID(), item.getQuality());
 		
-		if (index == -1) {
+		if (entry == null) {
 			return false;
 		} else {
-			return entries.get(index).quantity >= quantity;
+			return entry.quantity >= quantity;
 		}
 	}
 	
@@ -546,11 +612,7 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	 */
 	
 	public boolean contains(String id) {
-		for (Entry entry : entries) {
-			if (entry.id.equals(id)) return true;
-		}
-		
-		return false;
+		return entriesByID.containsKey(id);
 	}
 	
 	/**
@@ -561,9 +623,7 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	 */
 	
 	public boolean contains(String id, String quality) {
-		int index = findEntry(id, Game.ruleset.getItemQuality(quality));
-		
-		return index != -1;
+		return findEntry(id, Game.ruleset.getItemQuality(quality)) != null;
 	}
 	
 	/**
@@ -574,12 +634,12 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	 */
 	
 	public int getQuantity(Item item) {
-		int index = findEntry(item.getTemplate().getID(), item.getQuality());
+		Entry entry = findEntry(item.getTemplate().getID(), item.getQuality());
 		
-		if (index == -1) {
+		if (entry == null) {
 			return 0;
 		} else {
-			return entries.get(index).quantity;
+			return entry.quantity;
 		}
 	}
 	
@@ -591,11 +651,13 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	 */
 	
 	public int getQuantity(String itemID) {
+		List<Entry> matches = entriesByID.get(itemID);
+		if (matches == null) return 0;
+		
 		int quantity = 0;
 		
-		for (Entry entry : entries) {
-			if (entry.id.equals(itemID))
-				quantity += entry.quantity;
+		for (Entry entry : matches) {
+			quantity += entry.quantity;
 		}
 		
 		return quantity;
@@ -610,13 +672,7 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	 */
 	
 	public ItemList.Entry find(String id, Quality quality) {
-		int index = findEntry(id, quality);
-		
-		if (index == -1) {
-			return null;
-		} else {
-			return entries.get(index);
-		}
+		return findEntry(id, quality);
 	}
 	
 	/**
@@ -635,15 +691,16 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 		}
 	}
 	
-	private int findEntry(String id, Quality quality) {
-		for (int index = 0; index < entries.size(); index++) {
-			Entry entry = entries.get(index);
-			
-			if (entry.id.equals(id) && entry.getQuality() == quality)
-				return index;
+	private Entry findEntry(String id, Quality quality) {
+		List<Entry> matches = entriesByID.get(id);
+		if (matches == null) return null;
+		
+		for (Entry entry : matches) {
+			if (entry.hasQuality(quality))
+				return entry;
 		}
 		
-		return -1;
+		return null;
 	}
 	
 	/**
@@ -670,6 +727,12 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	
 	public void sort() {
 		Collections.sort(entries);
+		
+		// keep the index in the same order as the entries
+		entriesByID.clear();
+		for (Entry entry : entries) {
+			addToIndex(entry);
+		}
 	}
 	
 	/**
@@ -679,15 +742,29 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	 */
 	
 	public Weight getTotalWeight() {
-		int grams = 0;
-		
-		for (Entry entry : entries) {
-			ItemTemplate template = EntityManager.getItemTemplate(entry.id);
-			
-			grams += template.getWeightInGrams() * entry.quantity;
-		}
-		
-		return new Weight(grams);
+		return new Weight((int)totalWeightInGrams);
+	}
+	
+	/**
+	 * Gets the total value of all items in this List, in a unit such that 1 Copper
+	 * Piece equals 100.  The value of each item is modified by its quality.  Note that
+	 * if any item has infinite quantity, the resulting value from this method is undefined.
+	 * @return the total value of all items in this list
+	 */
+	
+	public long getTotalValueInCPOver100() {
+		return totalValueInCPOver100;
+	}
+	
+	/**
+	 * Gets the total quantity of all items in this List, summed over all entries.
+	 * Note that if any item has infinite quantity, the resulting quantity from this
+	 * method is undefined.
+	 * @return the total quantity of all items in this list
+	 */
+	
+	public long getTotalQuantity() {
+		return totalQuantity;
 	}
 	
 	@Override public Iterator<Entry> iterator() {
@@ -699,10 +776,8 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 	 * from the list
 	 */
 	
-	private void removeEntry(int index) {
-		Entry entry = entries.get(index);
-		
-		entry.quantity = 0;
+	private void removeEntry(Entry entry) {
+		changeQuantity(entry, -entry.quantity);
 		
 		Iterator<Listener> iter = listeners.iterator();
 		
@@ -714,6 +789,52 @@ public class ItemList implements Iterable<ItemList.Entry>, Saveable {
 			}
 		}
 		
-		entries.remove(index);
+		entries.remove(entry);
+		removeFromIndex(entry);
+	}
+	
+	/*
+	 * Adds a new entry to the end of the list, without notifying listeners
+	 */
+	
+	private void addEntry(Entry entry) {
+		entries.add(entry);
+		addToIndex(entry);
+		
+		updateTotals(entry, entry.quantity);
+	}
+	
+	/*
+	 * Modifies the quantity of an entry already in the list, without notifying listeners
+	 */
+	
+	private void changeQuantity(Entry entry, int delta) {
+		entry.quantity += delta;
+		
+		updateTotals(entry, delta);
+	}
+	
+	private void updateTotals(Entry entry, int delta) {
+		totalQuantity += delta;
+		totalWeightInGrams += (long)entry.weightInGrams * delta;
+		totalValueInCPOver100 += (long)entry.valueInCPOver100 * delta;
+	}
+	
+	private void addToIndex(Entry entry) {
+		List<Entry> matches = entriesByID.get(entry.id);
+		if (matches == null) {
+			matches = new ArrayList<Entry>(1);
+			entriesByID.put(entry.id, matches);
+		}
+		
+		matches.add(entry);
+	}
+	
+	private void removeFromIndex(Entry entry) {
+		List<Entry> matches = entriesByID.get(entry.id);
+		if (matches == null) return;
+		
+		matches.remove(entry);
+		if (matches.isEmpty()) entriesByID.remove(entry.id);
 	}
 }
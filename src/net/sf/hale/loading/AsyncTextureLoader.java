@@ -40,14 +40,14 @@ import org.lwjgl.opengl.GL11;
  */
 
 public class AsyncTextureLoader {
-	private List<TextureSpriteLoadList> loadLists;
+	private List<PendingLoad> loadLists;
 	
 	/**
 	 * Creates an empty AsyncTextureLoader
 	 */
 	
 	public AsyncTextureLoader() {
-		loadLists = new ArrayList<TextureSpriteLoadList>();
+		loadLists = new ArrayList<PendingLoad>();
 	}
 	
 	/**
@@ -68,7 +68,7 @@ public class AsyncTextureLoader {
 	
 	public void update() {
 		synchronized(loadLists) {
-			for (TextureSpriteLoadList list : loadLists) {
+			for (PendingLoad list : loadLists) {
 				list.loadTexture();
 			}
 			
@@ -94,7 +94,82 @@ public class AsyncTextureLoader {
 		}
 	}
 	
-	private class TextureSpriteLoadList {
+	/**
+	 * Tells the loader to create a new texture of the specified size with undefined
+	 * contents.  The next time {@link #update()} is called, the specified sprites will
+	 * have their texture set to the new texture.  The contents can then be filled in with
+	 * {@link #loadSubTexture(Sprite, int, int, ByteBuffer, int, int, List)}
+	 * @param width the width of the texture
+	 * @param height the height of the texture
+	 * @param sprites the sprites to set the texture for
+	 */
+	
+	public void createTexture(int width, int height, List<Sprite> sprites) {
+		loadTexture(null, width, height, sprites);
+	}
+	
+	/**
+	 * Tells the loader to add the specified pixel data to the queue of textures to be
+	 * loaded, replacing a region of the texture of the specified target sprite.  The next
+	 * time {@link #update()} is called, after the target sprite's texture has been loaded,
+	 * the pixel data will be copied into that texture and the specified sprites will have
+	 * their texture set to it
+	 * @param target the sprite holding the texture to copy into
+	 * @param x the x coordinate of the region within the target texture
+	 * @param y the y coordinate of the region within the target texture
+	 * @param pixels the pixel data to load
+	 * @param width the width of the pixel data
+	 * @param height the height of the pixel data
+	 * @param sprites the sprites to set the texture for
+	 */
+	
+	public void loadSubTexture(Sprite target, int x, int y, ByteBuffer pixels, int width, int height,
+			List<Sprite> sprites) {
+		SubTextureLoadList list = new SubTextureLoadList(target, x, y, pixels, width, height, sprites);
+		
+		synchronized(loadLists) {
+			loadLists.add(list);
+		}
+	}
+	
+	private interface PendingLoad {
+		public void loadTexture();
+	}
+	
+	private class SubTextureLoadList implements PendingLoad {
+		private Sprite target;
+		private int x, y;
+		private ByteBuffer pixels;
+		private int width;
+		private int height;
+		
+		private List<Sprite> sprites;
+		
+		private SubTextureLoadList(Sprite target, int x, int y, ByteBuffer pixels, int width, int height,
+				List<Sprite> sprites) {
+			this.target = target;
+			this.x = x;
+			this.y = y;
+			this.pixels = pixels;
+			this.width = width;
+			this.height = height;
+			this.sprites = sprites;
+		}
+		
+		@Override public void loadTexture() {
+			int texture = target.getTextureReference();
+			
+			GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+			GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, x, y, width, height,
+					GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+			
+			for (Sprite sprite : sprites) {
+				sprite.setTexture(texture);
+			}
+		}
+	}
+	
+	private class TextureSpriteLoadList implements PendingLoad {
 		private ByteBuffer pixels;
 		private int width;
 		private int height;
@@ -108,7 +183,7 @@ public class AsyncTextureLoader {
 			this.sprites = sprites;
 		}
 		
-		private void loadTexture() {
+		@Override public void loadTexture() {
 			IntBuffer textures = BufferUtils.createIntBuffer(1);
 
 			// bind a new texture for the image
@@ -0,0 +1,692 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.loading;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.sf.hale.util.SaveFileHeader;
+import net.sf.hale.util.WorkerPool;
+
+/**
+ * A compact binary alternative to the JSON text save format written by {@link SaveWriter}.
+ * The save data is split into sections: one for each loaded area and one for the
+ * remaining campaign data.  Each section is encoded with its own string table and
+ * compressed as a separate gzip member, so sections can be encoded and decoded in parallel.
+ *
+ * The file begins with a gzip member containing the {@link SaveFileHeader}, followed by
+ * the format marker and a directory of compressed section lengths.  This keeps the header
+ * readable in exactly the same way as for JSON save files.  The section members follow
+ * at the end of the file.
+ *
+ * Decoding produces the same JSONObject tree that parsing the equivalent JSON save would,
+ * so loading code does not need to know which format was used.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class BinarySaveFormat {
+	/** The marker written after the save file header to identify binary save data */
+	public static final String Marker = "HALEBINARY";
+	
+	/** The version of the binary format; files with a different version cannot be read */
+	public static final int Version = 1;
+	
+	/** The key in the campaign save data holding the array of area data */
+	public static final String AreasKey = "loadedAreas";
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private static final int TYPE_NULL = 0;
+	private static final int TYPE_FALSE = 1;
+	private static final int TYPE_TRUE = 2;
+	private static final int TYPE_INT = 3;
+	private static final int TYPE_LONG = 4;
+	private static final int TYPE_DOUBLE = 5;
+	private static final int TYPE_STRING = 6;
+	private static final int TYPE_OBJECT = 7;
+	private static final int TYPE_ARRAY = 8;
+	private static final int TYPE_INT_ARRAY = 9;
+	private static final int TYPE_BOOLEAN_ARRAY = 10;
+	private static final int TYPE_COORDINATE_ARRAY = 11;
+	private static final int TYPE_SECTION_ARRAY = 12;
+	
+	/**
+	 * Returns true if the data remaining in the specified stream, which must already
+	 * be positioned after the save file header, is in the binary format.  The stream
+	 * is left at the same position.
+	 * @param in the stream to check
+	 * @return whether the stream contains binary save data
+	 * @throws IOException
+	 */
+	
+	public static boolean isBinary(PushbackInputStream in) throws IOException {
+		int c = in.read();
+		if (c == -1) return false;
+		
+		in.unread(c);
+		
+		return c == Marker.charAt(0);
+	}
+	
+	/**
+	 * Writes the specified header and campaign save data to the specified file in the
+	 * binary format.  The areas contained in the save data are encoded and compressed
+	 * in parallel.
+	 * @param file the file to write to
+	 * @param header the save file header
+	 * @param data the campaign save data, as returned by
+	 * {@link net.sf.hale.rules.Campaign#getSaveGameData()}
+	 * @throws IOException
+	 */
+	
+	public static void write(File file, SaveFileHeader header, Map<String, Object> data) throws IOException {
+		// split the areas out into their own sections; the first section is the campaign data
+		List<Object> sections = new ArrayList<Object>();
+		
+		JSONOrderedObject campaignData = new JSONOrderedObject();
+		sections.add(campaignData);
+		
+		for (Map.Entry<String, Object> entry : data.entrySet()) {
+			if (AreasKey.equals(entry.getKey())) {
+				int first = sections.size();
+				for (Object area : toList(entry.getValue())) {
+					sections.add(area);
+				}
+				
+				campaignData.put(AreasKey, new SectionRange(first, sections.size() - first));
+			} else {
+				campaignData.put(entry.getKey(), entry.getValue());
+			}
+		}
+		
+		List<Callable<byte[]>> tasks = new ArrayList<Callable<byte[]>>(sections.size());
+		for (final Object section : sections) {
+			tasks.add(new Callable<byte[]>() {
+				@Override public byte[] call() throws IOException {
+					return compress(encodeSection(section));
+				}
+			});
+		}
+		
+		List<byte[]> compressed = invokeAll(tasks);
+		
+		FileOutputStream fout = new FileOutputStream(file);
+		try {
+			GZIPOutputStream gz = new GZIPOutputStream(fout);
+			
+			SaveFileHeader.write(header, gz);
+			
+			ByteArrayOutputStream directory = new ByteArrayOutputStream();
+			directory.write(Marker.getBytes(UTF8));
+			writeVarInt(directory, Version);
+			writeVarInt(directory, compressed.size());
+			for (byte[] section : compressed) {
+				writeVarInt(directory, section.length);
+			}
+			directory.writeTo(gz);
+			
+			// end the header gzip member without closing the file
+			gz.finish();
+			
+			for (byte[] section : compressed) {
+				fout.write(section);
+			}
+		} finally {
+			fout.close();
+		}
+	}
+	
+	/**
+	 * Reads the binary save data from the specified file.  The specified stream must
+	 * be a decompressing stream of the file, positioned after the save file header.
+	 * Sections are decompressed and decoded in parallel.
+	 * @param file the file being read
+	 * @param in the decompressed stream, positioned after the header
+	 * @return the campaign save data
+	 * @throws IOException
+	 * @throws LoadGameException if the file is not a valid binary save file
+	 */
+	
+	public static JSONObject read(File file, InputStream in) throws IOException, LoadGameException {
+		byte[] marker = Marker.getBytes(UTF8);
+		for (int i = 0; i < marker.length; i++) {
+			if (in.read() != marker[i]) {
+				throw new LoadGameException("Save file " + file.getName() + " is not in the binary save format.");
+			}
+		}
+		
+		int version = readVarInt(in);
+		if (version != Version) {
+			throw new LoadGameException("Save file " + file.getName() + " has binary format version " +
+					version + " but expected " + Version);
+		}
+		
+		int numSections = readVarInt(in);
+		int[] lengths = new int[numSections];
+		long totalLength = 0l;
+		for (int i = 0; i < numSections; i++) {
+			lengths[i] = readVarInt(in);
+			totalLength += lengths[i];
+		}
+		
+		// the sections are stored at the end of the file
+		final byte[] sectionData = new byte[(int)totalLength];
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			raf.seek(raf.length() - totalLength);
+			raf.readFully(sectionData);
+		} finally {
+			raf.close();
+		}
+		
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(numSections);
+		int offset = 0;
+		for (int i = 0; i < numSections; i++) {
+			final int sectionOffset = offset;
+			final int sectionLength = lengths[i];
+			
+			tasks.add(new Callable<Object>() {
+				@Override public Object call() throws IOException {
+					InputStream sectionIn = new GZIPInputStream(
+							new ByteArrayInputStream(sectionData, sectionOffset, sectionLength));
+					
+					return new SectionDecoder(new DataInputStream(sectionIn)).decodeSection();
+				}
+			});
+			
+			offset += sectionLength;
+		}
+		
+		List<Object> sections = invokeAll(tasks);
+		
+		Object campaignData = sections.get(0);
+		if (!(campaignData instanceof JSONObject)) {
+			throw new LoadGameException("Save file " + file.getName() + " does not contain campaign data.");
+		}
+		
+		JSONObject result = (JSONObject)campaignData;
+		for (Map.Entry<String, Object> entry : result.entrySet()) {
+			if (entry.getValue() instanceof SectionRange) {
+				SectionRange range = (SectionRange)entry.getValue();
+				
+				JSONArray areas = new JSONArray();
+				for (int i = range.first; i < range.first + range.count; i++) {
+					areas.add(sections.get(i));
+				}
+				
+				entry.setValue(areas);
+			}
+		}
+		
+		return result;
+	}
+	
+	private static <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+		try {
+			return WorkerPool.invokeAll(tasks);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) throw (IOException)e.getCause();
+			
+			throw new IOException("Error processing save game section", e.getCause());
+		} catch (InterruptedException e) {
+			throw new IOException("Interrupted while processing save game sections", e);
+		}
+	}
+	
+	private static byte[] compress(byte[] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+		GZIPOutputStream gz = new GZIPOutputStream(out);
+		gz.write(data);
+		gz.close();
+		
+		return out.toByteArray();
+	}
+	
+	private static List<?> toList(Object value) {
+		if (value instanceof Object[]) {
+			List<Object> list = new ArrayList<Object>();
+			for (Object o : (Object[])value) {
+				list.add(o);
+			}
+			return list;
+		} else if (value instanceof Iterable<?>) {
+			List<Object> list = new ArrayList<Object>();
+			for (Object o : (Iterable<?>)value) {
+				list.add(o);
+			}
+			return list;
+		} else {
+			throw new IllegalArgumentException("Expected an array of areas but found " + value);
+		}
+	}
+	
+	/*
+	 * Encodes the section to a byte array, consisting of the string table followed
+	 * by the section data
+	 */
+	
+	private static byte[] encodeSection(Object section) throws IOException {
+		SectionEncoder encoder = new SectionEncoder();
+		encoder.writeValue(section);
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream(encoder.body.size() + 1024);
+		writeVarInt(out, encoder.strings.size());
+		for (String string : encoder.strings) {
+			byte[] bytes = string.getBytes(UTF8);
+			writeVarInt(out, bytes.length);
+			out.write(bytes);
+		}
+		encoder.body.writeTo(out);
+		
+		return out.toByteArray();
+	}
+	
+	/*
+	 * A reference to a range of sections, used in place of the area data in the
+	 * campaign section
+	 */
+	
+	private static class SectionRange {
+		private final int first;
+		private final int count;
+		
+		private SectionRange(int first, int count) {
+			this.first = first;
+			this.count = count;
+		}
+	}
+	
+	private static class SectionEncoder {
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream(4096);
+		private final List<String> strings = new ArrayList<String>();
+		private final Map<String, Integer> stringIndices = new HashMap<String, Integer>();
+		
+		private void writeString(String value) {
+			Integer index = stringIndices.get(value);
+			if (index == null) {
+				index = Integer.valueOf(strings.size());
+				strings.add(value);
+				stringIndices.put(value, index);
+			}
+			
+			writeVarInt(body, index.intValue());
+		}
+		
+		@SuppressWarnings("unchecked")
+		private void writeValue(Object value) throws IOException {
+			if (value == null) {
+				body.write(TYPE_NULL);
+			} else if (value instanceof String) {
+				body.write(TYPE_STRING);
+				writeString((String)value);
+			} else if (value instanceof Boolean) {
+				body.write(((Boolean)value).booleanValue() ? TYPE_TRUE : TYPE_FALSE);
+			} else if (value instanceof Float) {
+				// match the value the JSON writer and parser would produce
+				if (((Float)value).isInfinite())
+					body.write(TYPE_NULL);
+				else
+					writeDouble(Double.parseDouble(value.toString()));
+			} else if (value instanceof Double) {
+				if (((Double)value).isInfinite())
+					body.write(TYPE_NULL);
+				else
+					writeDouble(((Double)value).doubleValue());
+			} else if (value instanceof Long) {
+				writeLong(((Long)value).longValue());
+			} else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+				body.write(TYPE_INT);
+				writeVarInt(body, zigZag(((Number)value).intValue()));
+			} else if (value instanceof Number) {
+				writeDouble(((Number)value).doubleValue());
+			} else if (value instanceof SectionRange) {
+				SectionRange range = (SectionRange)value;
+				body.write(TYPE_SECTION_ARRAY);
+				writeVarInt(body, range.first);
+				writeVarInt(body, range.count);
+			} else if (value instanceof Map<?, ?>) {
+				Map<String, Object> map = (Map<String, Object>)value;
+				body.write(TYPE_OBJECT);
+				writeVarInt(body, map.size());
+				for (Map.Entry<String, Object> entry : map.entrySet()) {
+					writeString(entry.getKey() == null ? "null" : entry.getKey());
+					writeValue(entry.getValue());
+				}
+			} else if (value instanceof int[]) {
+				writeIntArray((int[])value);
+			} else if (value instanceof boolean[]) {
+				writeBooleanArray((boolean[])value);
+			} else if (value instanceof Object[]) {
+				writeArray(toList(value));
+			} else if (value instanceof Iterable<?>) {
+				writeArray(toList(value));
+			} else if (value.getClass().isArray()) {
+				writeOtherPrimitiveArray(value);
+			} else {
+				throw new IOException("Unable to encode value of type " + value.getClass().getName());
+			}
+		}
+		
+		private void writeDouble(double value) {
+			body.write(TYPE_DOUBLE);
+			long bits = Double.doubleToLongBits(value);
+			for (int i = 56; i >= 0; i -= 8) {
+				body.write((int)(bits >>> i) & 0xff);
+			}
+		}
+		
+		private void writeLong(long value) {
+			if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+				// the JSON parser reads values in this range as Integers
+				body.write(TYPE_INT);
+				writeVarInt(body, zigZag((int)value));
+			} else {
+				body.write(TYPE_LONG);
+				writeVarLong(body, (value << 1) ^ (value >> 63));
+			}
+		}
+		
+		private void writeArray(List<?> list) throws IOException {
+			if (isCoordinateList(list)) {
+				writeCoordinateArray(list);
+				return;
+			}
+			
+			body.write(TYPE_ARRAY);
+			writeVarInt(body, list.size());
+			for (Object o : list) {
+				writeValue(o);
+			}
+		}
+		
+		private void writeIntArray(int[] values) {
+			body.write(TYPE_INT_ARRAY);
+			writeVarInt(body, values.length);
+			for (int value : values) {
+				writeVarInt(body, zigZag(value));
+			}
+		}
+		
+		private void writeBooleanArray(boolean[] values) {
+			body.write(TYPE_BOOLEAN_ARRAY);
+			writeVarInt(body, values.length);
+			
+			int current = 0;
+			for (int i = 0; i < values.length; i++) {
+				if (values[i]) current |= (1 << (i % 8));
+				
+				if (i % 8 == 7) {
+					body.write(current);
+					current = 0;
+				}
+			}
+			
+			if (values.length % 8 != 0) body.write(current);
+		}
+		
+		private void writeOtherPrimitiveArray(Object value) throws IOException {
+			List<Object> list = new ArrayList<Object>();
+			int length = java.lang.reflect.Array.getLength(value);
+			for (int i = 0; i < length; i++) {
+				list.add(java.lang.reflect.Array.get(value, i));
+			}
+			
+			body.write(TYPE_ARRAY);
+			writeVarInt(body, list.size());
+			for (Object o : list) {
+				writeValue(o);
+			}
+		}
+		
+		/*
+		 * Lists of grid coordinates such as the explored matrix are written as
+		 * "x,y" strings.  These are stored as delta encoded varints instead.
+		 */
+		
+		private void writeCoordinateArray(List<?> list) {
+			body.write(TYPE_COORDINATE_ARRAY);
+			writeVarInt(body, list.size());
+			
+			int lastX = 0;
+			int lastY = 0;
+			for (Object o : list) {
+				String coords = (String)o;
+				int comma = coords.indexOf(',');
+				int x = Integer.parseInt(coords.substring(0, comma));
+				int y = Integer.parseInt(coords.substring(comma + 1));
+				
+				writeVarInt(body, zigZag(x - lastX));
+				writeVarInt(body, zigZag(y - lastY));
+				
+				lastX = x;
+				lastY = y;
+			}
+		}
+		
+		private boolean isCoordinateList(List<?> list) {
+			if (list.size() < 2) return false;
+			
+			for (Object o : list) {
+				if (!(o instanceof String)) return false;
+				
+				String value = (String)o;
+				int comma = value.indexOf(',');
+				if (comma < 1 || comma == value.length() - 1) return false;
+				
+				for (int i = 0; i < value.length(); i++) {
+					char c = value.charAt(i);
+					if (i != comma && (c < '0' || c > '9')) return false;
+				}
+				
+				// only canonical forms can be reproduced exactly when decoding
+				if (value.charAt(0) == '0' && comma != 1) return false;
+				if (value.charAt(comma + 1) == '0' && comma + 2 != value.length()) return false;
+				if (comma > 9 || value.length() - comma - 1 > 9) return false;
+			}
+			
+			return true;
+		}
+	}
+	
+	private static class SectionDecoder {
+		private final DataInputStream in;
+		private String[] strings;
+		
+		private SectionDecoder(DataInputStream in) {
+			this.in = in;
+		}
+		
+		private Object decodeSection() throws IOException {
+			int numStrings = readVarInt(in);
+			strings = new String[numStrings];
+			for (int i = 0; i < numStrings; i++) {
+				byte[] bytes = new byte[readVarInt(in)];
+				in.readFully(bytes);
+				strings[i] = new String(bytes, UTF8);
+			}
+			
+			return readValue();
+		}
+		
+		private String readString() throws IOException {
+			int index = readVarInt(in);
+			if (index < 0 || index >= strings.length) {
+				throw new IOException("Invalid string table index " + index);
+			}
+			
+			return strings[index];
+		}
+		
+		private Object readValue() throws IOException {
+			int type = in.read();
+			
+			switch (type) {
+			case TYPE_NULL:
+				return null;
+			case TYPE_FALSE:
+				return Boolean.FALSE;
+			case TYPE_TRUE:
+				return Boolean.TRUE;
+			case TYPE_INT:
+				return Integer.valueOf(unZigZag(readVarInt(in)));
+			case TYPE_LONG:
+				long raw = readVarLong(in);
+				return Long.valueOf((raw >>> 1) ^ -(raw & 1));
+			case TYPE_DOUBLE:
+				return Double.valueOf(in.readDouble());
+			case TYPE_STRING:
+				return readString();
+			case TYPE_OBJECT:
+				int numEntries = readVarInt(in);
+				JSONObject object = new JSONObject();
+				for (int i = 0; i < numEntries; i++) {
+					String key = readString();
+					object.put(key, readValue());
+				}
+				return object;
+			case TYPE_ARRAY:
+				int size = readVarInt(in);
+				JSONArray array = new JSONArray();
+				for (int i = 0; i < size; i++) {
+					array.add(readValue());
+				}
+				return array;
+			case TYPE_INT_ARRAY:
+				int numInts = readVarInt(in);
+				JSONArray ints = new JSONArray();
+				for (int i = 0; i < numInts; i++) {
+					ints.add(Integer.valueOf(unZigZag(readVarInt(in))));
+				}
+				return ints;
+			case TYPE_BOOLEAN_ARRAY:
+				int numBooleans = readVarInt(in);
+				JSONArray booleans = new JSONArray();
+				int current = 0;
+				for (int i = 0; i < numBooleans; i++) {
+					if (i % 8 == 0) current = in.readUnsignedByte();
+					
+					booleans.add(Boolean.valueOf((current & (1 << (i % 8))) != 0));
+				}
+				return booleans;
+			case TYPE_COORDINATE_ARRAY:
+				int numCoords = readVarInt(in);
+				JSONArray coords = new JSONArray();
+				int x = 0;
+				int y = 0;
+				for (int i = 0; i < numCoords; i++) {
+					x += unZigZag(readVarInt(in));
+					y += unZigZag(readVarInt(in));
+					
+					coords.add(Integer.toString(x) + ',' + Integer.toString(y));
+				}
+				return coords;
+			case TYPE_SECTION_ARRAY:
+				int first = readVarInt(in);
+				int count = readVarInt(in);
+				return new SectionRange(first, count);
+			case -1:
+				throw new EOFException("Unexpected end of save game section");
+			default:
+				throw new IOException("Invalid value type " + type + " in save game section");
+			}
+		}
+	}
+	
+	private static int zigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+	
+	private static int unZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+	
+	private static void writeVarInt(OutputStream out, int value) {
+		try {
+			while ((value & ~0x7f) != 0) {
+				out.write((value & 0x7f) | 0x80);
+				value >>>= 7;
+			}
+			out.write(value);
+		} catch (IOException e) {
+			// never thrown by ByteArrayOutputStream or GZIPOutputStream on a valid stream
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static void writeVarLong(OutputStream out, long value) {
+		try {
+			while ((value & ~0x7fl) != 0l) {
+				out.write((int)((value & 0x7f) | 0x80));
+				value >>>= 7;
+			}
+			out.write((int)value);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static int readVarInt(InputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = in.read();
+			if (b == -1) throw new EOFException("Unexpected end of save game data");
+			
+			value |= (b & 0x7f) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		
+		throw new IOException("Invalid variable length integer in save game data");
+	}
+	
+	private static long readVarLong(InputStream in) throws IOException {
+		long value = 0l;
+		for (int shift = 0; shift < 70; shift += 7) {
+			int b = in.read();
+			if (b == -1) throw new EOFException("Unexpected end of save game data");
+			
+			value |= (long)(b & 0x7f) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		
+		throw new IOException("Invalid variable length integer in save game data");
+	}
+}
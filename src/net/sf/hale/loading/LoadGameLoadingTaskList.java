@@ -22,11 +22,14 @@ package net.sf.hale.loading;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
 import java.io.Reader;
 import java.util.zip.GZIPInputStream;
 
+import net.minidev.json.JSONObject;
 import net.sf.hale.Game;
 import net.sf.hale.entity.EntityManager;
+import net.sf.hale.util.Autosaver;
 import net.sf.hale.util.Logger;
 import net.sf.hale.util.SaveFileHeader;
 import net.sf.hale.util.SimpleJSONParser;
@@ -42,7 +45,7 @@ public class LoadGameLoadingTaskList extends LoadingTaskList {
 	private SimpleJSONParser parser;
 	
 	private File fileToLoad;
-	private GZIPInputStream gz;
+	private PushbackInputStream gz;
 	
 	/**
 	 * Creates a NewGameLoadingTaskList populated by the tasks needed to load the game
@@ -61,7 +64,7 @@ public class LoadGameLoadingTaskList extends LoadingTaskList {
 			}
 			
 			FileInputStream fin = new FileInputStream(fileToLoad);
-			gz = new GZIPInputStream(fin);
+			gz = new PushbackInputStream(new GZIPInputStream(fin));
 			
 		} catch (Exception e) {
 			Logger.appendToErrorLog("Error loading saved game: " + fileToLoad.getPath(), e);
@@ -82,8 +85,16 @@ public class LoadGameLoadingTaskList extends LoadingTaskList {
 		Runnable parseData = new Runnable() {
 			@Override public void run() {
 				try {
-					Reader reader = new InputStreamReader(gz);
-					parser = new SimpleJSONParser(reader, fileToLoad.getName());
+					if (BinarySaveFormat.isBinary(gz)) {
+						JSONObject data = BinarySaveFormat.read(fileToLoad, gz);
+						gz.close();
+						
+						parser = new SimpleJSONParser(data, fileToLoad.getName());
+					} else {
+						Reader reader = new InputStreamReader(gz);
+						parser = new SimpleJSONParser(reader, fileToLoad.getName());
+					}
+					
 					parser.setWarnOnMissingKeys(false);
 				} catch (Exception e) {
 					Logger.appendToErrorLog("Error parsing saved game: " + fileToLoad.getPath(), e);
@@ -124,6 +135,8 @@ public class LoadGameLoadingTaskList extends LoadingTaskList {
 				Game.selectedEntity = Game.curCampaign.party.getSelected();
 				Game.interfaceLocker.clear();
 				
+				Autosaver.resetTimer();
+				
 				// free up memory
 				System.gc();
 			}
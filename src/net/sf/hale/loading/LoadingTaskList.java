@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import net.sf.hale.util.Logger;
+import net.sf.hale.util.Profiler;
 
 /**
  * A list of LoadingTasks.  Will execute each task in order, updating the
@@ -123,10 +124,14 @@ public class LoadingTaskList extends Thread {
 			for (LoadingTask task : tasks) {
 				currentDescription = task.getDescription();
 
+				long start = Profiler.begin();
+				
 				while (task.hasNextTask()) {
 					completedWeight += task.executeNextTask();
 					completedFraction = ((float)completedWeight) / ((float)totalWeight);
 				}
+				
+				if (start != Profiler.Disabled) Profiler.end("Load." + currentDescription, start);
 			}
 			
 			// sleep so the user sees the completed progress bar for a moment
@@ -19,11 +19,11 @@
 
 package net.sf.hale.mainmenu;
 
-import java.io.File;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.List;
 
+import net.sf.hale.util.SaveGameIndex;
 import net.sf.hale.util.SaveGameUtil;
 
 import de.matthiasmann.twl.Button;
@@ -73,6 +73,13 @@ public abstract class AbstractSaveGamePopup extends PopupWindow {
 		return format;
 	}
 	
+	@Override public void closePopup() {
+		super.closePopup();
+		
+		// write out any save headers that were read while this popup was open
+		SaveGameIndex.flush();
+	}
+	
 	/**
 	 * Called when the user presses the accept button
 	 */
@@ -228,8 +235,7 @@ public abstract class AbstractSaveGamePopup extends PopupWindow {
 		@Override public void run() {
 			String saveGame = selected.getSaveGame();
 			
-			File f = SaveGameUtil.getSaveFile(saveGame);
-			f.delete();
+			SaveGameUtil.deleteSaveGame(saveGame);
 			
 			content.addSelectors();
 		}
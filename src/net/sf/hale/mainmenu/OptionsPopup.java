@@ -104,6 +104,11 @@ public class OptionsPopup extends PopupWindow {
 		data.put("DebugMode", Game.config.isDebugModeEnabled());
 		data.put("WarningMode", Game.config.isWarningModeEnabled());
 		data.put("CheckForUpdatesInterval", Game.config.getCheckForUpdatesInterval());
+		data.put("BinarySaveFormat", Game.config.useBinarySaveFormat());
+		data.put("AutosaveSlots", Game.config.getAutosaveSlots());
+		data.put("AutosaveInterval", Game.config.getAutosaveInterval());
+		data.put("ScriptTimeBudget", Game.config.getScriptTimeBudget());
+		data.put("ScriptWatchdogInterrupt", Game.config.isScriptWatchdogInterruptEnabled());
 		if (Game.config.randSeedSet()) {
 			data.put("RandSeed", Game.config.getRandSeed());
 		}
@@ -92,8 +92,8 @@ public class SaveGamePopup extends AbstractSaveGamePopup implements Runnable {
 		selectors.add(newSaveSelector);
 		
 		for (String saveGame : SaveGameUtil.getSaveGames()) {
-			// do not show quicksaves
-			if (SaveGameUtil.isQuickSave(saveGame)) continue;
+			// do not show quicksaves or autosaves
+			if (SaveGameUtil.isQuickSave(saveGame) || SaveGameUtil.isAutosave(saveGame)) continue;
 			
 			SaveGameSelector selector = new SaveGameSelector(saveGame, getDateFormat());
 			selector.addCallback(new AbstractSaveGamePopup.SelectorCallback(selector));
@@ -182,7 +182,7 @@ public class SaveGamePopup extends AbstractSaveGamePopup implements Runnable {
 				}
 			}
 			
-			if (SaveGameUtil.isQuickSave(text)) {
+			if (SaveGameUtil.isQuickSave(text) || SaveGameUtil.isAutosave(text)) {
 				error.setText("Invalid save name.");
 				return false;
 			}
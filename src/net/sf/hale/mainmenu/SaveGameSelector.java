@@ -20,22 +20,23 @@
 package net.sf.hale.mainmenu;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.text.DateFormat;
 import java.util.Date;
-import java.util.zip.GZIPInputStream;
 
 import net.sf.hale.Game;
-import net.sf.hale.util.Logger;
 import net.sf.hale.util.SaveFileHeader;
+import net.sf.hale.util.SaveGameIndex;
 import net.sf.hale.util.SaveGameUtil;
+import de.matthiasmann.twl.GUI;
 import de.matthiasmann.twl.Label;
+import de.matthiasmann.twl.ScrollPane;
 import de.matthiasmann.twl.ThemeInfo;
+import de.matthiasmann.twl.Widget;
 
 /**
  * A widget for viewing a single specified save game and its
- * header properties
+ * header properties.  The header is read lazily, once the widget is
+ * first drawn within the visible area of the save game list
  * @author Jared Stephen
  *
  */
@@ -48,6 +49,9 @@ public class SaveGameSelector extends AbstractSaveGamePopup.Selector {
 	
 	private boolean versionIDMatchesCurrentVersion;
 	
+	private final File saveFile;
+	private boolean headerLoaded;
+	
 	/**
 	 * Creates a new SaveGameSelector viewing the specified save game with the
 	 * specified date format for the last modified time label
@@ -82,35 +86,51 @@ public class SaveGameSelector extends AbstractSaveGamePopup.Selector {
 		area.setTheme("arealabel");
 		add(area);
 		
-		FileInputStream fin = null;
-		try {
-			fin = new FileInputStream(saveFile);
-			GZIPInputStream gz = new GZIPInputStream(fin);
-			
-			SaveFileHeader header = SaveFileHeader.read(gz);
-			fin.close();
-			
-			partyName.setText(header.getPartyNamesString());
-			partyLevel.setText("Level " + header.getPartyLevel() );
-			area.setText(header.getAreaName());
-			
-			String versionID = header.getVersionID();
-			versionIDMatchesCurrentVersion = Game.config.getVersionID().equals(versionID);
-			
-		} catch (Exception e) {
-			Logger.appendToErrorLog("Error reading header for save game file " + saveFile.getPath(), e);
-		} finally {
-			if (fin != null) {
-				try {
-					fin.close();
-				} catch (IOException e) {
-					Logger.appendToErrorLog("Error closing file " + saveFile.getPath(), e);
-				}
+		this.saveFile = saveFile;
+		this.headerLoaded = false;
+	}
+	
+	/*
+	 * Reads the header for this save from the save game index and sets the
+	 * label text.  This is only done once this selector is scrolled into view
+	 */
+	
+	private void loadHeader() {
+		headerLoaded = true;
+		
+		SaveFileHeader header = SaveGameIndex.getHeader(saveFile);
+		if (header == null) return;
+		
+		partyName.setText(header.getPartyNamesString());
+		partyLevel.setText("Level " + header.getPartyLevel() );
+		area.setText(header.getAreaName());
+		
+		String versionID = header.getVersionID();
+		versionIDMatchesCurrentVersion = Game.config.getVersionID().equals(versionID);
+	}
+	
+	private boolean isInView() {
+		Widget parent = getParent();
+		while (parent != null) {
+			if (parent instanceof ScrollPane) {
+				return getBottom() >= parent.getInnerY() && getY() <= parent.getInnerBottom();
 			}
+			
+			parent = parent.getParent();
 		}
+		
+		return true;
+	}
+	
+	@Override protected void paintWidget(GUI gui) {
+		if (!headerLoaded && isInView()) loadHeader();
+		
+		super.paintWidget(gui);
 	}
 	
 	@Override public boolean checkVersionID() {
+		if (!headerLoaded) loadHeader();
+		
 		return versionIDMatchesCurrentVersion;
 	}
 	
@@ -80,8 +80,8 @@ public class CircleParticleGenerator extends ParticleGenerator {
 	}
 	
 	@Override protected void setParticlePosition(Particle particle) {
-		float angle = Game.dice.rand(0.0f, twoPi);
-		float magnitude = Game.dice.rand(minBound, maxBound);
+		float angle = Game.visualDice.rand(0.0f, twoPi);
+		float magnitude = Game.visualDice.rand(minBound, maxBound);
 		
 		particle.setPosition((float)Math.cos(angle) * magnitude + getX(), (float)Math.sin(angle) * magnitude + getY());
 	}
@@ -95,7 +95,7 @@ public class EquallySpacedAngleDistribution implements DistributionTwoValue {
 	
 	@Override public float[] generate(Particle particle) {
 		float angle = angleStepSize * count;
-		float magnitude = curMagnitude + Game.dice.rand(0.0f, jitter);
+		float magnitude = curMagnitude + Game.visualDice.rand(0.0f, jitter);
 		
 		final float[] vector = new float[4];
 
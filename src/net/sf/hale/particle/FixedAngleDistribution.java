@@ -53,7 +53,7 @@ public class FixedAngleDistribution implements DistributionTwoValue {
 	}
 	
 	@Override public float[] generate(Particle particle) {
-		final float magnitude = Game.dice.rand(magnitudeMin, magnitudeMax);
+		final float magnitude = Game.visualDice.rand(magnitudeMin, magnitudeMax);
 
 		final float[] vector = new float[4];
 
@@ -51,9 +51,9 @@ public class GaussianAngleDistribution implements DistributionTwoValue {
 	}
 
 	@Override public float[] generate(Particle particle) {
-		final float angle = Game.dice.rand(0.0f, twoPi);
+		final float angle = Game.visualDice.rand(0.0f, twoPi);
 
-		final float magnitude = Game.dice.gaussian(mean, stddev);
+		final float magnitude = Game.visualDice.gaussian(mean, stddev);
 
 		final float[] vector = new float[4];
 
@@ -49,7 +49,7 @@ public class GaussianDistribution implements DistributionOneValue {
 	}
 	
 	public float generate(Particle particle) {
-		return Game.dice.gaussian(mean, stddev);
+		return Game.visualDice.gaussian(mean, stddev);
 	}
 	
 	@Override public DistributionOneValue getCopyIfHasState() {
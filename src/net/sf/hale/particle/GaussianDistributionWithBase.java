@@ -63,7 +63,7 @@ public class GaussianDistributionWithBase implements DistributionOneValue {
 	public float generate(Particle particle) {
 		float avg = base.getBase(particle) * multiplier + offset;
 		
-		return Game.dice.gaussian(avg, avg * stddevFraction);
+		return Game.visualDice.gaussian(avg, avg * stddevFraction);
 	}
 	
 	@Override public DistributionOneValue getCopyIfHasState() {
@@ -124,11 +124,11 @@ public class LineParticleGenerator extends ParticleGenerator {
 		
 		switch (lineStepMode) {
 		case X:
-			posX = Game.dice.rand(lineStartX, lineEndX);
+			posX = Game.visualDice.rand(lineStartX, lineEndX);
 			posY = (posX - lineStartX) * lineStepRatio + lineStartY;
 			break;
 		default:
-			posY = Game.dice.rand(lineStartY, lineEndY);
+			posY = Game.visualDice.rand(lineStartY, lineEndY);
 			posX = (posY - lineStartY) * lineStepRatio + lineStartX;
 			break;
 		}
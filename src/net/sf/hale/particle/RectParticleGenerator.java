@@ -98,7 +98,7 @@ public class RectParticleGenerator extends ParticleGenerator {
 	}
 	
 	@Override protected void setParticlePosition(Particle particle) {
-		particle.setPosition(Game.dice.rand(lowerX, upperX), Game.dice.rand(lowerY, upperY));
+		particle.setPosition(Game.visualDice.rand(lowerX, upperX), Game.visualDice.rand(lowerY, upperY));
 	}
 	
 	@Override public Animated getCopy() {
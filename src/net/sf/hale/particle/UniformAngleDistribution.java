@@ -51,9 +51,9 @@ public class UniformAngleDistribution implements DistributionTwoValue {
 	}
 
 	@Override public float[] generate(Particle particle) {
-		final float angle = Game.dice.rand(0.0f, twoPi);
+		final float angle = Game.visualDice.rand(0.0f, twoPi);
 
-		final float magnitude = Game.dice.rand(magnitudeMin, magnitudeMax);
+		final float magnitude = Game.visualDice.rand(magnitudeMin, magnitudeMax);
 
 		final float[] vector = new float[4];
 
@@ -56,9 +56,9 @@ public class UniformArcDistribution implements DistributionTwoValue {
 	}
 
 	@Override public float[] generate(Particle particle) {
-		final float angle = Game.dice.rand(angleMin, angleMax);
+		final float angle = Game.visualDice.rand(angleMin, angleMax);
 
-		final float magnitude = Game.dice.rand(magnitudeMin, magnitudeMax);
+		final float magnitude = Game.visualDice.rand(magnitudeMin, magnitudeMax);
 
 		final float[] vector = new float[4];
 
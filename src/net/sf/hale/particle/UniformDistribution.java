@@ -48,7 +48,7 @@ public class UniformDistribution implements DistributionOneValue {
 		this.max = max;
 	}
 	
-	public float generate(Particle particle) { return Game.dice.rand(min, max); }
+	public float generate(Particle particle) { return Game.visualDice.rand(min, max); }
 	
 	@Override public DistributionOneValue getCopyIfHasState() {
 		return this;
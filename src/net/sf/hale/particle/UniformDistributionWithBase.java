@@ -62,7 +62,7 @@ public class UniformDistributionWithBase implements DistributionOneValue {
 	public float generate(Particle particle) {
 		float avg = base.getBase(particle) * multiplier + offset;
 		
-		return Game.dice.rand(avg - avg * plusOrMinusFraction, avg + avg * plusOrMinusFraction);
+		return Game.visualDice.rand(avg - avg * plusOrMinusFraction, avg + avg * plusOrMinusFraction);
 	}
 	
 	@Override public DistributionOneValue getCopyIfHasState() {
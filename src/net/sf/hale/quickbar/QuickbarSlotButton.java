@@ -21,6 +21,7 @@ package net.sf.hale.quickbar;
 
 import net.sf.hale.Game;
 import net.sf.hale.Keybindings;
+import net.sf.hale.entity.EntityManager;
 import net.sf.hale.icon.Icon;
 import net.sf.hale.icon.IconFactory;
 import net.sf.hale.view.DragTarget;
@@ -335,7 +336,8 @@ public class QuickbarSlotButton extends Button implements DropTarget {
 
 	@Override public void dragAndDropStartHover(DragTarget target) {
 		if (target.getItem() != null && target.getParentPC() == this.quickbar.getParent()) {
-			dragSlotToAdd = Quickbar.getQuickbarSlot(target.getItem(), target.getParentPC());
+			// use a new instance, as the dragged item may be a shared display item
+			dragSlotToAdd = Quickbar.getQuickbarSlot(EntityManager.getItem(target.getItem()), target.getParentPC());
 		} else {
 			dragSlotToAdd = null;
 		}
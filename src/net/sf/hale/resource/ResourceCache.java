@@ -0,0 +1,253 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.resource;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread safe cache of resource contents stored as Strings.  The cache is
+ * bounded by the approximate number of bytes used by the cached Strings; once
+ * this bound is exceeded, the least recently used entries are evicted.
+ *
+ * Lookups for resources that do not exist are tracked separately, so that
+ * repeated requests for missing resources do not need to search the resource
+ * packages, while not counting against the byte limit.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class ResourceCache {
+	// approximate per entry overhead of the map node, key, and String header
+	private static final int ENTRY_OVERHEAD_BYTES = 64;
+	
+	private final long maxBytes;
+	private long currentBytes;
+	
+	private final LinkedHashMap<String, String> entries;
+	private final Set<String> missingEntries;
+	
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+	private final AtomicLong evictions;
+	
+	/**
+	 * Creates a new, empty cache that will hold at most approximately the specified
+	 * number of bytes of resource data
+	 * @param maxBytes the maximum size of this cache in bytes
+	 */
+	
+	public ResourceCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+		
+		// access ordered, so iteration order is least recently used first
+		this.entries = new LinkedHashMap<String, String>(256, 0.75f, true);
+		this.missingEntries = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		this.evictions = new AtomicLong();
+	}
+	
+	/**
+	 * Returns the cached contents of the resource at the specified path, or null
+	 * if the resource is not in the cache.  Note that this method also returns null
+	 * for resources known to be missing; use {@link #isKnownMissing(String)} to
+	 * distinguish these cases.
+	 * @param path the resource path
+	 * @return the cached contents of the resource, or null
+	 */
+	
+	public String get(String path) {
+		String value;
+		synchronized(this) {
+			value = entries.get(path);
+		}
+		
+		if (value != null) {
+			hits.incrementAndGet();
+			return value;
+		}
+		
+		if (missingEntries.contains(path)) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Returns true if the resource at the specified path has been recorded as not
+	 * existing in any resource package, false otherwise
+	 * @param path the resource path
+	 * @return whether the resource is known to be missing
+	 */
+	
+	public boolean isKnownMissing(String path) {
+		return missingEntries.contains(path);
+	}
+	
+	/**
+	 * Adds the specified resource contents to this cache, evicting least recently used
+	 * entries as needed to remain within the size limit.  Resources that are larger
+	 * than the size limit of this cache are not stored.
+	 * @param path the resource path
+	 * @param value the contents of the resource
+	 */
+	
+	public void put(String path, String value) {
+		if (value == null) {
+			putMissing(path);
+			return;
+		}
+		
+		long size = getSizeInBytes(value);
+		if (size > maxBytes) return;
+		
+		missingEntries.remove(path);
+		
+		synchronized(this) {
+			String old = entries.put(path, value);
+			if (old != null) currentBytes -= getSizeInBytes(old);
+			
+			currentBytes += size;
+			
+			Iterator<Map.Entry<String, String>> iter = entries.entrySet().iterator();
+			while (currentBytes > maxBytes && iter.hasNext()) {
+				Map.Entry<String, String> entry = iter.next();
+				
+				currentBytes -= getSizeInBytes(entry.getValue());
+				iter.remove();
+				evictions.incrementAndGet();
+			}
+		}
+	}
+	
+	/**
+	 * Records that the resource at the specified path does not exist
+	 * @param path the resource path
+	 */
+	
+	public void putMissing(String path) {
+		synchronized(this) {
+			String old = entries.remove(path);
+			if (old != null) currentBytes -= getSizeInBytes(old);
+		}
+		
+		missingEntries.add(path);
+	}
+	
+	/**
+	 * Removes any cached contents or missing resource record for the specified path
+	 * @param path the resource path
+	 */
+	
+	public void invalidate(String path) {
+		synchronized(this) {
+			String old = entries.remove(path);
+			if (old != null) currentBytes -= getSizeInBytes(old);
+		}
+		
+		missingEntries.remove(path);
+	}
+	
+	/**
+	 * Removes all entries and missing resource records from this cache.  The hit
+	 * and miss counters are not reset
+	 */
+	
+	public void clear() {
+		synchronized(this) {
+			entries.clear();
+			currentBytes = 0l;
+		}
+		
+		missingEntries.clear();
+	}
+	
+	/**
+	 * Returns the number of lookups that were answered by this cache, including
+	 * lookups of known missing resources
+	 * @return the number of cache hits
+	 */
+	
+	public long getHits() { return hits.get(); }
+	
+	/**
+	 * Returns the number of lookups that could not be answered by this cache
+	 * @return the number of cache misses
+	 */
+	
+	public long getMisses() { return misses.get(); }
+	
+	/**
+	 * Returns the number of entries that have been evicted to keep this cache within
+	 * its size limit
+	 * @return the number of evicted entries
+	 */
+	
+	public long getEvictions() { return evictions.get(); }
+	
+	/**
+	 * Returns the approximate number of bytes currently used by cached resources
+	 * @return the current size of this cache in bytes
+	 */
+	
+	public synchronized long getSizeInBytes() { return currentBytes; }
+	
+	/**
+	 * Returns the maximum number of bytes this cache will hold
+	 * @return the maximum size of this cache in bytes
+	 */
+	
+	public long getMaxSizeInBytes() { return maxBytes; }
+	
+	/**
+	 * Returns the number of resources with contents currently stored in this cache
+	 * @return the number of cached resources
+	 */
+	
+	public synchronized int getNumberOfEntries() { return entries.size(); }
+	
+	/**
+	 * Returns the number of resources currently recorded as missing
+	 * @return the number of missing resource records
+	 */
+	
+	public int getNumberOfMissingEntries() { return missingEntries.size(); }
+	
+	@Override public String toString() {
+		return "ResourceCache: " + getNumberOfEntries() + " entries, " + getNumberOfMissingEntries() +
+			" missing, " + getSizeInBytes() + " / " + maxBytes + " bytes, " + hits.get() + " hits, " +
+			misses.get() + " misses, " + evictions.get() + " evictions";
+	}
+	
+	private static long getSizeInBytes(String value) {
+		return 2l * value.length() + ENTRY_OVERHEAD_BYTES;
+	}
+}
@@ -26,11 +26,9 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.zip.ZipFile;
@@ -53,7 +51,10 @@ import net.sf.hale.util.Logger;
  */
 
 public class ResourceManager {
-	private static Map<String, String> cachedFiles = new HashMap<String, String>();
+	// the maximum size of cached resource Strings, in bytes
+	private static final long MaxCacheSizeBytes = 32l * 1024l * 1024l;
+	
+	private static final ResourceCache cachedFiles = new ResourceCache(MaxCacheSizeBytes);
 	
 	private static List<ResourcePackage> packages = new ArrayList<ResourcePackage>(2);
 	
@@ -61,6 +62,16 @@ public class ResourceManager {
 		return packages;
 	}
 	
+	/**
+	 * Returns the cache used to hold the String contents of resources read via
+	 * {@link #getResourceAsString(String)}.  This can be used to query cache statistics
+	 * @return the resource String cache
+	 */
+	
+	public static ResourceCache getResourceCache() {
+		return cachedFiles;
+	}
+	
 	/**
 	 * Removes the resource with the specified path from the Campaign Package, if
 	 * any is found.
@@ -72,6 +83,7 @@ public class ResourceManager {
 		for (ResourcePackage resourcePackage : packages) {
 			if (resourcePackage.getType() == PackageType.Campaign) {
 				resourcePackage.removeResource(path);
+				cachedFiles.invalidate(path);
 				break;
 			}
 		}
@@ -90,6 +102,7 @@ public class ResourceManager {
 		for (ResourcePackage resourcePackage : packages) {
 			if (resourcePackage.getType() == PackageType.Campaign) {
 				resourcePackage.addResource(path);
+				cachedFiles.invalidate(path);
 				break;
 			}
 		}
@@ -457,13 +470,14 @@ public class ResourceManager {
 	 */
 	
 	public static String getResourceAsString(String path) {
-		if (cachedFiles.containsKey(path)) {
-			return cachedFiles.get(path);
+		String cached = cachedFiles.get(path);
+		if (cached != null || cachedFiles.isKnownMissing(path)) {
+			return cached;
 		}
 		
 		InputStream in = getStream(path);
 		if (in == null) {
-			cachedFiles.put(path, null);
+			cachedFiles.putMissing(path);
 			return null;
 		}
 		
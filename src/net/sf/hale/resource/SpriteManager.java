@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -47,14 +48,23 @@ import org.lwjgl.opengl.GL11;
 /**
  * A class for managing sprites and texture memory used by the Game.  Note that this
  * class does not manage GUI images, as those are held internally by TWL.
+ * 
+ * Small images loaded on their own, such as portraits, are packed into shared
+ * {@link TextureAtlas} pages rather than each being given their own texture.
  * @author Jared Stephen
  *
  */
 
 public class SpriteManager {
+	// images larger than this in either dimension get their own texture
+	private final static int MaxAtlasImageSize = 256;
+	
 	private final static Map<String, Sprite> sprites = new HashMap<String, Sprite>();
 	private final static Map<String, Sprite> spriteSheets = new HashMap<String, Sprite>();
 	
+	private final static List<TextureAtlas> atlasPages = new ArrayList<TextureAtlas>();
+	private final static Set<Sprite> atlasSprites = Collections.newSetFromMap(new IdentityHashMap<Sprite, Boolean>());
+	
 	private final static Map<String, BufferedImage> sourceImages = new HashMap<String, BufferedImage>();
 	
 	private static boolean saveSourceImages = false;
@@ -347,6 +357,10 @@ public class SpriteManager {
 	private static final Sprite loadImage(String ref) {
 		ByteBufferSized buffer = SpriteManager.loadPixels(ref);
 		
+		if (buffer.width <= MaxAtlasImageSize && buffer.height <= MaxAtlasImageSize) {
+			return SpriteManager.addToAtlas(buffer);
+		}
+		
 		Sprite sprite = new Sprite(0, buffer.width, buffer.height);
 		List<Sprite> sprites = Collections.singletonList(sprite);
 		
@@ -354,6 +368,26 @@ public class SpriteManager {
 		Game.textureLoader.loadTexture(buffer.pixels, buffer.width, buffer.height, sprites);
 		return sprite;
 	}
+	
+	private static final synchronized Sprite addToAtlas(ByteBufferSized buffer) {
+		Sprite sprite = null;
+		
+		for (TextureAtlas page : atlasPages) {
+			sprite = page.add(buffer.pixels, buffer.width, buffer.height);
+			if (sprite != null) break;
+		}
+		
+		if (sprite == null) {
+			TextureAtlas page = new TextureAtlas();
+			atlasPages.add(page);
+			
+			sprite = page.add(buffer.pixels, buffer.width, buffer.height);
+		}
+		
+		atlasSprites.add(sprite);
+		
+		return sprite;
+	}
 
 	/**
 	 * Frees all texture memory associated with this SpriteManager and removes all
@@ -385,17 +419,33 @@ public class SpriteManager {
 			}
 		}
 		
+		for (TextureAtlas page : atlasPages) {
+			Integer texture = page.getTexture().getTextureReference();
+			if (!deletedTextures.contains(texture)) {
+				GL11.glDeleteTextures(texture);
+				deletedTextures.add(texture);
+			}
+		}
+		
 		sprites.clear();
 		spriteSheets.clear();
+		atlasPages.clear();
+		atlasSprites.clear();
 	}
 	
 	/**
 	 * Frees the texture used by this Sprite and removes all Sprites and Spritesheets in the
-	 * SpriteManager that reference that texture
+	 * SpriteManager that reference that texture.  If the Sprite is packed in a texture atlas,
+	 * only the Sprite itself is removed, as the atlas texture is shared
 	 * @param spriteToDelete the Sprite who's texture is to be deleted
 	 */
 	
 	public static void freeTexture(Sprite spriteToDelete) {
+		if (atlasSprites.remove(spriteToDelete)) {
+			sprites.values().remove(spriteToDelete);
+			return;
+		}
+		
 		int texture = spriteToDelete.getTextureReference();
 		GL11.glDeleteTextures(texture);
 		
@@ -429,6 +479,12 @@ public class SpriteManager {
 		
 		Set<Integer> texturesAlreadyCounted = new HashSet<Integer>();
 		
+		for (TextureAtlas page : atlasPages) {
+			texturesAlreadyCounted.add(page.getTexture().getTextureReference());
+			
+			total += TextureAtlas.PageSize * TextureAtlas.PageSize * 4;
+		}
+		
 		for (String id : spriteSheets.keySet()) {
 			Sprite spriteSheet = spriteSheets.get(id);
 			
@@ -0,0 +1,178 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.resource;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.hale.Game;
+
+/**
+ * One page of a texture atlas: a single large texture that many small images
+ * are packed into, so that drawing them does not require switching textures.
+ * Images are placed with a bottom left skyline packer, which tracks the height
+ * of the filled area across the page and places each new image as low as possible.
+ * Space is never reclaimed; the page texture is only freed when the SpriteManager
+ * is cleared.
+ *
+ * The page texture and each image are uploaded through the {@link net.sf.hale.loading.AsyncTextureLoader},
+ * so images can be added from any thread.
+ * @author Jared Stephen
+ *
+ */
+
+class TextureAtlas {
+	/**
+	 * The width and height of each atlas page, in pixels
+	 */
+	
+	static final int PageSize = 2048;
+	
+	// empty space left to the right of and below each image
+	private static final int Padding = 1;
+	
+	private final Sprite texture;
+	
+	// each segment is the x coordinate, the y coordinate of the top of the empty
+	// space, and the width.  The segments are sorted by x and cover the full width
+	private final List<int[]> skyline;
+	
+	/**
+	 * Creates a new, empty atlas page and queues the creation of its texture
+	 */
+	
+	TextureAtlas() {
+		texture = new Sprite(0, PageSize, PageSize);
+		
+		skyline = new ArrayList<int[]>();
+		skyline.add(new int[] { 0, 0, PageSize });
+		
+		Game.textureLoader.createTexture(PageSize, PageSize, Collections.singletonList(texture));
+	}
+	
+	/**
+	 * Returns the Sprite covering this entire page.  This Sprite holds the page texture
+	 * @return the Sprite for the page texture
+	 */
+	
+	Sprite getTexture() {
+		return texture;
+	}
+	
+	/**
+	 * Packs the specified image into this page, if there is space
+	 * @param pixels the RGBA pixel data for the image
+	 * @param width the width of the image
+	 * @param height the height of the image
+	 * @return a new Sprite drawing the image from this page, or null if the image
+	 * does not fit
+	 */
+	
+	synchronized Sprite add(ByteBuffer pixels, int width, int height) {
+		int paddedWidth = width + Padding;
+		int paddedHeight = height + Padding;
+		
+		int bestIndex = -1;
+		int bestY = Integer.MAX_VALUE;
+		int bestSegmentWidth = Integer.MAX_VALUE;
+		
+		for (int i = 0; i < skyline.size(); i++) {
+			int y = findFit(i, paddedWidth);
+			if (y == -1 || y + paddedHeight > PageSize) continue;
+			
+			// prefer the lowest position, then the narrowest segment to waste less space
+			int segmentWidth = skyline.get(i)[2];
+			if (y < bestY || (y == bestY && segmentWidth < bestSegmentWidth)) {
+				bestIndex = i;
+				bestY = y;
+				bestSegmentWidth = segmentWidth;
+			}
+		}
+		
+		if (bestIndex == -1) return null;
+		
+		int x = skyline.get(bestIndex)[0];
+		addSegment(bestIndex, x, bestY + paddedHeight, paddedWidth);
+		
+		Sprite sprite = new Sprite(0, width, height,
+				(double)x / PageSize, (double)bestY / PageSize,
+				(double)(x + width) / PageSize, (double)(bestY + height) / PageSize);
+		
+		Game.textureLoader.loadSubTexture(texture, x, bestY, pixels, width, height,
+				Collections.singletonList(sprite));
+		
+		return sprite;
+	}
+	
+	/*
+	 * Returns the y coordinate an image of the specified width would be placed at if its
+	 * left edge was at the start of the specified segment, or -1 if it would not fit
+	 */
+	
+	private int findFit(int index, int width) {
+		int x = skyline.get(index)[0];
+		if (x + width > PageSize) return -1;
+		
+		int y = 0;
+		int remaining = width;
+		for (int i = index; remaining > 0; i++) {
+			int[] segment = skyline.get(i);
+			
+			y = Math.max(y, segment[1]);
+			remaining -= segment[2];
+		}
+		
+		return y;
+	}
+	
+	private void addSegment(int index, int x, int y, int width) {
+		skyline.add(index, new int[] { x, y, width });
+		
+		// shrink or remove the segments now covered by the new segment
+		int right = x + width;
+		while (index + 1 < skyline.size()) {
+			int[] next = skyline.get(index + 1);
+			if (next[0] >= right) break;
+			
+			int overlap = right - next[0];
+			if (overlap >= next[2]) {
+				skyline.remove(index + 1);
+			} else {
+				next[0] += overlap;
+				next[2] -= overlap;
+				break;
+			}
+		}
+		
+		// merge adjacent segments at the same height
+		for (int i = 0; i < skyline.size() - 1; i++) {
+			int[] segment = skyline.get(i);
+			int[] next = skyline.get(i + 1);
+			
+			if (segment[1] == next[1]) {
+				segment[2] += next[2];
+				skyline.remove(i + 1);
+				i--;
+			}
+		}
+	}
+}
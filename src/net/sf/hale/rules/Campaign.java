@@ -34,6 +34,7 @@ import net.sf.hale.ScriptState;
 import net.sf.hale.ability.AbilitySlot;
 import net.sf.hale.ability.ScriptFunctionType;
 import net.sf.hale.area.Area;
+import net.sf.hale.area.AreaPreloader;
 import net.sf.hale.area.Transition;
 import net.sf.hale.entity.CreatedItem;
 import net.sf.hale.entity.Creature;
@@ -51,6 +52,7 @@ import net.sf.hale.resource.ResourceType;
 import net.sf.hale.resource.Sprite;
 import net.sf.hale.resource.SpriteManager;
 import net.sf.hale.tileset.Tileset;
+import net.sf.hale.util.Autosaver;
 import net.sf.hale.util.FileUtil;
 import net.sf.hale.util.Logger;
 import net.sf.hale.util.Point;
@@ -106,6 +108,7 @@ public class Campaign {
 		data.put("currentDifficulty", currentDifficulty);
 		data.put("date", date.getTotalRoundsElapsed());
 		data.put("partyCurrency", partyCurrency.getValue());
+		data.put("randomState", Game.dice.getState());
 		
 		data.put("currentArea", SaveGameUtil.getRef(curArea));
 		
@@ -262,6 +265,15 @@ public class Campaign {
 		}
 		
 		refHandler.resolveAllReferences();
+		
+		// restore the random state last, so rolls made while loading don't affect it
+		if (data.containsKey("randomState")) {
+			try {
+				Game.dice.setState(data.get("randomState", null));
+			} catch (IllegalArgumentException e) {
+				Logger.appendToWarningLog(e.getMessage());
+			}
+		}
 	}
 	
 	public void readCampaignFile() {
@@ -332,6 +344,7 @@ public class Campaign {
 		this.id = id;
 		name = "";
 		areas = new HashMap<String, Area>();
+		AreaPreloader.clear();
 		transitions = new HashMap<String, Transition>();
 		party = new Party();
 		encounterTemplates = new HashMap<String, EncounterTemplate>();
@@ -559,6 +572,9 @@ public class Campaign {
 			// that were canceled due to auras being removed
 			slot.getAbility().executeFunction(ScriptFunctionType.onReactivate, slot);
 		}
+		
+		// the area transition is a safe point for an autosave
+		Autosaver.requestAutosave();
 	}
 	
 	public WorldMapLocation getWorldMapLocation(String ref) {
@@ -603,6 +619,29 @@ public class Campaign {
 		return area;
 	}
 	
+	/**
+	 * Starts preloading the destination area of the specified transition in the
+	 * background, if that area has not already been loaded.  See {@link AreaPreloader}
+	 * @param transition the transition that may be used
+	 * @param isFromWorldMap whether the transition would be used from the world map,
+	 * or from the current area
+	 */
+	
+	public void preloadArea(Transition transition, boolean isFromWorldMap) {
+		Transition.EndPoint endPoint;
+		if (isFromWorldMap) {
+			endPoint = transition.getEndPointForWorldMap();
+		} else {
+			endPoint = transition.getEndPointForCreaturesInCurrentArea();
+		}
+		
+		if (endPoint == null || endPoint.isWorldMap()) return;
+		
+		if (areas.containsKey(endPoint.getAreaID())) return;
+		
+		AreaPreloader.preload(endPoint.getAreaID());
+	}
+	
 	public void loadAreaTransitions() {
 		transitions.clear();
 		
@@ -22,41 +22,177 @@ package net.sf.hale.rules;
 import java.util.Random;
 
 import net.sf.hale.Game;
+import net.sf.hale.util.RandomSource;
+import net.sf.hale.util.RandomStream;
 
 /**
  * Class for handling all random number generation
+ * 
+ * A Dice is either single threaded, drawing from one {@link RandomStream}, or shared.  A
+ * shared Dice may be used from any thread; the thread that created it draws from the main
+ * stream, and every other thread draws from its own stream, split off from a separate
+ * root stream the first time that thread uses the Dice.  Threads therefore never contend
+ * for or corrupt a single generator, and the rolls made on the main thread are not
+ * affected by rolls made on other threads.  The state of a shared Dice may be saved and
+ * restored with {@link #getState()} and {@link #setState(String)}.
+ * 
+ * A legacy Dice, created with {@link #createLegacy(long)}, is single threaded and draws
+ * from java.util.Random rather than a RandomStream.  Its state cannot be saved.
  * @author Jared
  *
  */
 
 public class Dice {
-	private Random generator;
+	// the source the owning thread draws from
+	private final RandomSource source;
+	
+	// the same object as source, or null for legacy dice
+	private final RandomStream stream;
+	
+	// these are only used by shared dice
+	private final Thread owner;
+	private final RandomStream root;
+	private final ThreadLocal<ThreadStream> threadStreams;
+	
+	// incremented when the state is restored, so other threads split off new streams
+	private volatile int generation;
 	
 	/**
-	 * initializes a new dice object using the seed from the config, if applicable
+	 * initializes a new shared dice object using the seed from the config, if applicable.
+	 * The calling thread draws from the main stream
 	 */
 	
 	public Dice() {
-		generator = new Random();
-		
-		if (Game.config.randSeedSet()) {
-			generator.setSeed(Game.config.getRandSeed());
-		}
+		this(Game.config.randSeedSet() ? Game.config.getRandSeed() : System.nanoTime() ^ System.currentTimeMillis(), true);
 	}
 	
 	/**
-	 * Initializes a new dice object using the specified seed, ignoring any seed from the
-	 * config
+	 * Initializes a new single threaded dice object using the specified seed, ignoring any
+	 * seed from the config
 	 * @param seed
 	 */
 	
 	public Dice(long seed) {
-		generator = new Random();
-		generator.setSeed(seed);
+		this(seed, false);
+	}
+	
+	private Dice(long seed, boolean shared) {
+		this(new RandomStream(seed), shared);
+	}
+	
+	private Dice(RandomStream stream, boolean shared) {
+		this.source = stream;
+		this.stream = stream;
+		
+		if (shared) {
+			this.owner = Thread.currentThread();
+			this.root = stream.split();
+			this.threadStreams = new ThreadLocal<ThreadStream>();
+		} else {
+			this.owner = null;
+			this.root = null;
+			this.threadStreams = null;
+		}
+	}
+	
+	/**
+	 * Creates a new single threaded dice that produces the same values as dice did before
+	 * random streams were used, for the specified seed.  This should only be used to
+	 * reproduce content generated with older versions
+	 * @param seed the seed
+	 * @return a new legacy dice
+	 */
+	
+	public static Dice createLegacy(long seed) {
+		return new Dice(new LegacySource(seed));
+	}
+	
+	private Dice(RandomSource legacySource) {
+		this.source = legacySource;
+		this.stream = null;
+		this.owner = null;
+		this.root = null;
+		this.threadStreams = null;
+	}
+	
+	/**
+	 * Creates a new dice with an independent stream seeded from this dice.  The new
+	 * dice is shared if this dice is shared, with the calling thread drawing from its
+	 * main stream.  This is used to give each subsystem its own stream, so that rolls
+	 * made by one subsystem do not change the rolls made by another
+	 * @return the new dice
+	 */
+	
+	public Dice split() {
+		return new Dice(new RandomStream(getSource().nextLong()), owner != null);
+	}
+	
+	/**
+	 * Returns the state of the main and root streams of this dice, so that it can
+	 * be saved and later restored with {@link #setState(String)}
+	 * @return the state of this dice
+	 * @throws IllegalStateException if this is a legacy dice
+	 */
+	
+	public String getState() {
+		if (stream == null) throw new IllegalStateException("The state of legacy dice cannot be saved");
+		
+		if (root == null) return stream.getState();
+		
+		synchronized(root) {
+			return stream.getState() + ";" + root.getState();
+		}
+	}
+	
+	/**
+	 * Restores the state of this dice to a state returned by {@link #getState()}.  The
+	 * main thread will then produce the same sequence of rolls as when the state was saved.
+	 * Other threads will split off new streams from the restored root stream the next time
+	 * they use this dice
+	 * @param state the state to restore
+	 * @throws IllegalArgumentException if the state is not valid
+	 * @throws IllegalStateException if this is a legacy dice
+	 */
+	
+	public void setState(String state) {
+		if (stream == null) throw new IllegalStateException("The state of legacy dice cannot be restored");
+		
+		if (root == null) {
+			stream.setState(state);
+			return;
+		}
+		
+		String[] parts = state.split(";");
+		if (parts.length != 2) throw new IllegalArgumentException("Invalid dice state " + state);
+		
+		synchronized(root) {
+			stream.setState(parts[0]);
+			root.setState(parts[1]);
+			generation++;
+		}
+	}
+	
+	/*
+	 * Returns the source that the calling thread should draw from
+	 */
+	
+	private RandomSource getSource() {
+		if (owner == null || owner == Thread.currentThread()) return source;
+		
+		ThreadStream threadStream = threadStreams.get();
+		if (threadStream == null || threadStream.generation != generation) {
+			synchronized(root) {
+				threadStream = new ThreadStream(root.split(), generation);
+			}
+			
+			threadStreams.set(threadStream);
+		}
+		
+		return threadStream.stream;
 	}
 	
 	public float gaussian(float mean, float stddev) {
-		return ((float)generator.nextGaussian()) * stddev + mean;
+		return ((float)getSource().nextGaussian()) * stddev + mean;
 	}
 	
 	/**
@@ -66,19 +202,19 @@ public class Dice {
 	 */
 	
 	public long randSeed() {
-		return generator.nextLong();
+		return getSource().nextLong();
 	}
 	
 	public double rand(double min, double max) {
 		double range = max - min;
 		
-		return generator.nextDouble() * range + min;
+		return getSource().nextDouble() * range + min;
 	}
 	
 	public float rand(float min, float max) {
 		float range = max - min;
 		
-		return generator.nextFloat() * range + min;
+		return getSource().nextFloat() * range + min;
 	}
 	
 	public int randInt(int min, int max) {
@@ -88,13 +224,15 @@ public class Dice {
 	public int rand(int min, int max) {
 		int range = max - min + 1;
 		
-		return generator.nextInt(range) + min;	
+		return getSource().nextInt(range) + min;	
 	}
 	
 	public int d(int base, int multiple) {
+		RandomSource source = getSource();
+		
 		int total = 0;
 		for (int i = 0; i < multiple; i++) {
-			total += (generator.nextInt(base) + 1);
+			total += (source.nextInt(base) + 1);
 		}
 		
 		return total;
@@ -121,4 +259,36 @@ public class Dice {
 	public int d12() { return d(12, 1); }
 	public int d20() { return d(20, 1); }
 	public int d100() { return d(100, 1); }
+	
+	/*
+	 * Produces the same values as dice did before random streams were used
+	 */
+	
+	private static class LegacySource implements RandomSource {
+		private final Random random;
+		
+		private LegacySource(long seed) {
+			this.random = new Random(seed);
+		}
+		
+		@Override public long nextLong() { return random.nextLong(); }
+		
+		@Override public int nextInt(int bound) { return random.nextInt(bound); }
+		
+		@Override public double nextDouble() { return random.nextDouble(); }
+		
+		@Override public float nextFloat() { return random.nextFloat(); }
+		
+		@Override public double nextGaussian() { return random.nextGaussian(); }
+	}
+	
+	private static class ThreadStream {
+		private final RandomStream stream;
+		private final int generation;
+		
+		private ThreadStream(RandomStream stream, int generation) {
+			this.stream = stream;
+			this.generation = generation;
+		}
+	}
 }
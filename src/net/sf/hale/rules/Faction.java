@@ -19,8 +19,8 @@
 
 package net.sf.hale.rules;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.sf.hale.Game;
 import net.sf.hale.entity.Entity;
@@ -30,7 +30,11 @@ import net.sf.hale.util.SimpleJSONObject;
 
 /**
  * A faction is a group of creatures that work together in game.  Factions are either Friendly,
- * Neutral, or Hostile towards each other
+ * Neutral, or Hostile towards each other.
+ * 
+ * Each faction in a ruleset has a dense integer index, and relationships are stored in an
+ * array indexed by the other faction's index, so that relationship checks between entities
+ * do not require any String lookups.  The String based methods remain for scripts.
  * @author Jared
  *
  */
@@ -40,17 +44,27 @@ public class Faction {
 		Friendly, Neutral, Hostile
 	};
 	
+	// incremented whenever any relationship changes, so cached results can be invalidated
+	private static final AtomicInteger relationshipVersion = new AtomicInteger();
+	
 	private String name;
-	private Map<String, Relationship> relationships;
+	private final int index;
+	
+	// indexed by the index of the other faction; null entries are Neutral
+	private Relationship[] relationships;
 	
 	/**
 	 * Creates a new Faction with the specified identifying name
 	 * @param name
+	 * @param index the index of this faction within the ruleset.  Each faction
+	 * in a ruleset must have a different index, and indices should be assigned
+	 * starting from zero
 	 */
 	
-	public Faction(String name) {
+	public Faction(String name, int index) {
 		this.name = name;
-		this.relationships = new HashMap<String, Relationship>();
+		this.index = index;
+		this.relationships = new Relationship[index + 1];
 	}
 	
 	public boolean isFriendly(Entity other) {
@@ -72,29 +86,53 @@ public class Faction {
 	}
 	
 	public Relationship getRelationship(String otherName) {
-		Relationship relationship = relationships.get(otherName);
+		Faction other = Game.ruleset.getFaction(otherName);
 		
-		if (relationship == null) return Relationship.Neutral;
-		else return relationship;
+		if (other == null) return Relationship.Neutral;
+		else return getRelationship(other);
 	}
 	
 	public Relationship getRelationship(Faction other) {
-		Relationship relationship = relationships.get(other.getName());
+		if (other.index >= relationships.length) return Relationship.Neutral;
+		
+		Relationship relationship = relationships[other.index];
 		
 		if (relationship == null) return Relationship.Neutral;
 		else return relationship;
 	}
 	
 	public void setRelationship(Faction other, Relationship relationship) {
-		relationships.put(other.getName(), relationship);
+		if (other.index >= relationships.length) {
+			relationships = Arrays.copyOf(relationships, other.index + 1);
+		}
+		
+		relationships[other.index] = relationship;
+		
+		relationshipVersion.incrementAndGet();
 	}
 	
 	public void setRelationship(String otherName, Relationship relationship) {
-		relationships.put(otherName, relationship);
+		setRelationship(Game.ruleset.getFaction(otherName), relationship);
 	}
 	
 	public String getName() { return name; }
 	
+	/**
+	 * Returns the index of this faction within the ruleset
+	 * @return the index of this faction
+	 */
+	
+	public int getIndex() { return index; }
+	
+	/**
+	 * Returns a value that changes whenever the relationship between any two factions
+	 * is set.  Results that depend on faction relationships may be cached along with
+	 * this value, and recomputed when it changes
+	 * @return the current relationship version
+	 */
+	
+	public static int getRelationshipVersion() { return relationshipVersion.get(); }
+	
 	/**
 	 * A custom relationship is a modification to the default faction relationships
 	 * that has been set during the course of a game via script.  This will be saved
@@ -31,6 +31,7 @@ import net.sf.hale.Cutscene;
 import net.sf.hale.DifficultyManager;
 import net.sf.hale.ability.Ability;
 import net.sf.hale.ability.AbilitySelectionList;
+import net.sf.hale.ability.ScriptFunctionCache;
 import net.sf.hale.entity.SavedItemList;
 import net.sf.hale.quickbar.QuickbarGroup;
 import net.sf.hale.resource.ResourceManager;
@@ -116,6 +117,9 @@ public class Ruleset {
 	 */
 	
 	public void readData() {
+		// evaluate any changed scripts in parallel before the abilities that use them are read
+		ScriptFunctionCache.prepare(ResourceManager.getResourcesInDirectory("scripts"));
+		
 		readRuleValuesAndStrings();
 		
 		readItemQualities();
@@ -142,6 +146,8 @@ public class Ruleset {
 		XP.initXPTable();
 		
 		difficultyManager = new DifficultyManager();
+		
+		ScriptFunctionCache.flush();
 	}
 	
 	/**
@@ -412,7 +418,7 @@ public class Ruleset {
 		for (SimpleJSONArrayEntry entry : parser.getArray("factions")) {
 			SimpleJSONObject factionData = entry.getObject();
 			
-			Faction faction = new Faction(factionData.get("id", null));
+			Faction faction = new Faction(factionData.get("id", null), factions.size());
 			// a faction is always friendly with itself
 			faction.setRelationship(faction, Faction.Relationship.Friendly);
 			
@@ -434,8 +440,9 @@ public class Ruleset {
 				Faction.Relationship relationship = Faction.Relationship.valueOf(relationType);
 				
 				// set the factions with the appropriate relationship with each other
-				faction.setRelationship(relationID, relationship);
-				factions.get(relationID).setRelationship(faction, relationship);
+				Faction other = factions.get(relationID);
+				faction.setRelationship(other, relationship);
+				other.setRelationship(faction, relationship);
 			}
 		}
 		
@@ -66,6 +66,7 @@ public class SwingEditor extends JFrame implements ComponentListener {
 		Game.config = new Config(Game.getConfigBaseDirectory() + "config.json");
 		Game.scriptEngineManager = new JSEngineManager();
 		Game.dice = new Dice();
+		Game.visualDice = Game.dice.split();
 		
 		ResourceManager.registerCorePackage();
 		
@@ -6,7 +6,6 @@ import java.util.List;
 import net.sf.hale.Game;
 import net.sf.hale.area.Area;
 import net.sf.hale.tileset.Border;
-import net.sf.hale.tileset.BorderList;
 import net.sf.hale.tileset.BorderTile;
 import net.sf.hale.tileset.ElevationList;
 import net.sf.hale.tileset.FeatureType;
@@ -146,16 +145,14 @@ public class TerrainGrid {
 		
 		Point p = new Point(x, y);
 		
-		for (BorderList borderList : tileset.getMatchingBorderLists(terrain, p) ) {
-			for (Border border : borderList.getMatchingBorders(terrain, p) ) {
-				for (BorderTile borderTile : border) {
-					Point borderPoint = borderTile.getPosition().getRelativePoint(p);
-					
-					PointImmutable bP = new PointImmutable(borderPoint);
-					if (!bP.isWithinBounds(area)) continue;
-					
-					area.getTileGrid().addTile(borderTile.getID(), borderTile.getLayerID(), bP.x, bP.y);
-				}
+		for (Border border : tileset.getMatchingBorders(terrain, p) ) {
+			for (BorderTile borderTile : border) {
+				Point borderPoint = borderTile.getPosition().getRelativePoint(p);
+				
+				PointImmutable bP = new PointImmutable(borderPoint);
+				if (!bP.isWithinBounds(area)) continue;
+				
+				area.getTileGrid().addTile(borderTile.getID(), borderTile.getLayerID(), bP.x, bP.y);
 			}
 		}
 		
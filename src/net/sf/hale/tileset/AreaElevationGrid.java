@@ -23,6 +23,7 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 
 import net.sf.hale.util.AreaUtil;
+import net.sf.hale.util.GridUtil;
 import net.sf.hale.util.Point;
 
 /**
@@ -38,19 +39,22 @@ public class AreaElevationGrid {
 	private byte[][] elevation;
 	
 	/**
-	 * returns an array representing this elevation grid
-	 * @return the elevation array
+	 * returns a String encoding this elevation grid as runs of equal elevation
+	 * @return the encoded elevation grid
 	 */
 	
-	public byte[][] writeToJSON() {
-		byte[][] out = new byte[elevation[0].length][elevation.length];
-		for (int x = 0; x < elevation.length; x++) {
-			for (int y = 0; y < elevation[x].length; y++) {
-				out[y][x] = elevation[x][y];
-			}
-		}
-		
-		return out;
+	public String writeToJSON() {
+		return GridUtil.encodeBytes(elevation);
+	}
+	
+	/**
+	 * Sets the elevation of every point in this grid from the specified String,
+	 * created by {@link #writeToJSON()}
+	 * @param data the encoded elevation grid
+	 */
+	
+	public void readFromJSON(String data) {
+		GridUtil.decodeBytes(data, elevation);
 	}
 	
 	/**
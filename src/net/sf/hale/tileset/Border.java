@@ -42,6 +42,12 @@ public class Border implements Iterable<BorderTile> {
 	private List<DirectionList> mustNotHave;
 	private List<BorderTile> tiles;
 	
+	// the tiles checked by the rules, with bits 0 through 5 for the adjacent tiles
+	// and bit 6 for the center tile.  only valid if the border is local
+	private int mustHaveMask;
+	private int mustNotHaveMask;
+	private boolean local;
+	
 	/**
 	 * Creates a new Border with a parent list of the specified ID
 	 * @param borderListID the ID of the parent list
@@ -52,6 +58,28 @@ public class Border implements Iterable<BorderTile> {
 		this.mustHave = mustHave;
 		this.mustNotHave = mustNotHave;
 		this.tiles = tiles;
+		
+		this.local = true;
+		for (DirectionList list : mustHave) {
+			int index = list.getAdjacentIndex();
+			if (index == -1) local = false;
+			else mustHaveMask |= 1 << index;
+		}
+		
+		for (DirectionList list : mustNotHave) {
+			int index = list.getAdjacentIndex();
+			if (index == -1) local = false;
+			else mustNotHaveMask |= 1 << index;
+		}
+	}
+	
+	/**
+	 * Returns the ID of the BorderList containing this Border
+	 * @return the ID of the parent BorderList
+	 */
+	
+	public String getBorderListID() {
+		return borderListID;
 	}
 	
 	/**
@@ -76,6 +104,44 @@ public class Border implements Iterable<BorderTile> {
 		return tiles.iterator();
 	}
 	
+	/**
+	 * Returns true if all the conditions for this border only depend on the center
+	 * tile and the six tiles adjacent to it, false otherwise
+	 * @return whether this border only depends on the center and adjacent tiles
+	 */
+	
+	protected boolean isLocal() {
+		return local;
+	}
+	
+	/**
+	 * Returns true if and only if all the conditions for this border are met for the
+	 * specified center and adjacent terrain.  This may only be used if this border
+	 * {@link #isLocal()}
+	 * @param center the terrain at the point being checked, which must not be null
+	 * @param adjacent the terrain at each of the six adjacent tiles, in the order of
+	 * {@link DirectionList#getAdjacentIndex()}.  Tiles outside the terrain grid are null
+	 * @return true if and only if this border's conditions are met
+	 */
+	
+	protected boolean isMetForAdjacent(TerrainType center, TerrainType[] adjacent) {
+		for (int i = 0; i <= DirectionList.CenterIndex; i++) {
+			int bit = 1 << i;
+			if (((mustHaveMask | mustNotHaveMask) & bit) == 0) continue;
+			
+			TerrainType other = i == DirectionList.CenterIndex ? center : adjacent[i];
+			if (other == null) return false;
+			
+			if ((mustHaveMask & bit) != 0 && !borderListID.equals(center.getBorderIDWith(other)))
+				return false;
+			
+			if ((mustNotHaveMask & bit) != 0 && other != center)
+				return false;
+		}
+		
+		return true;
+	}
+	
 	/**
 	 * Returns true if and only if all the conditions for this border are met at the 
 	 * specified point within the specified grid of terrain
@@ -37,7 +37,15 @@ import net.sf.hale.util.Point;
  */
 
 public class DirectionList implements Iterable<Direction> {
+	/**
+	 * The value returned by {@link #getAdjacentIndex()} for a DirectionList that
+	 * leads back to the starting point
+	 */
+	
+	public static final int CenterIndex = 6;
+	
 	private List<Direction> directions;
+	private int adjacentIndex;
 	
 	@Override public Iterator<Direction> iterator() {
 		return directions.iterator();
@@ -53,6 +61,18 @@ public class DirectionList implements Iterable<Direction> {
 		return sb.toString();
 	}
 	
+	/**
+	 * Returns the index of the tile adjacent to the starting point that this DirectionList
+	 * leads to, using the same order as {@link AreaUtil#getAdjacentTiles(Point)}.  If this
+	 * list leads back to the starting point, returns {@link #CenterIndex}.  If this list
+	 * moves more than one tile, returns -1.
+	 * @return the index of the adjacent tile this DirectionList leads to
+	 */
+	
+	public int getAdjacentIndex() {
+		return adjacentIndex;
+	}
+	
 	/**
 	 * Returns the point that one ends up at if traversing this DirectionList
 	 * from the specified start point
@@ -117,6 +137,20 @@ public class DirectionList implements Iterable<Direction> {
 		
 		directions.trimToSize();
 		list.directions = Collections.unmodifiableList(directions);
+		
+		// the adjacent directions are declared in the same order as the adjacent tiles
+		list.adjacentIndex = CenterIndex;
+		for (Direction direction : directions) {
+			if (direction == Direction.Center) continue;
+			
+			if (list.adjacentIndex == CenterIndex) {
+				list.adjacentIndex = direction.ordinal();
+			} else {
+				list.adjacentIndex = -1;
+				break;
+			}
+		}
+		
 		return list;
 	}
 }
@@ -37,6 +37,9 @@ import net.sf.hale.util.SimpleJSONObject;
 public class TerrainType extends AbstractTerrainType {
 	private final Map<String, String> borders;
 	
+	// the index of this terrain type within its tileset
+	private int index;
+	
 	private TerrainType(String id, boolean transparent, boolean passable,
 			TerrainTile previewTile, List<TerrainTile> tiles) {
 		
@@ -45,6 +48,25 @@ public class TerrainType extends AbstractTerrainType {
 		this.borders = new HashMap<String, String>();
 	}
 	
+	/**
+	 * Returns the index of this TerrainType within the tileset that contains it.
+	 * Indices are assigned consecutively starting at zero
+	 * @return the index of this TerrainType
+	 */
+	
+	protected int getIndex() {
+		return index;
+	}
+	
+	/**
+	 * Sets the index of this TerrainType within the tileset that contains it
+	 * @param index the index
+	 */
+	
+	protected void setIndex(int index) {
+		this.index = index;
+	}
+	
 	/**
 	 * Returns the ID String for the BorderList between this terrainType
 	 * and the specified terrainType, or null if no borderList exists for
@@ -36,6 +36,7 @@ import net.sf.hale.entity.Door;
 import net.sf.hale.entity.Entity;
 import net.sf.hale.entity.Trap;
 import net.sf.hale.loading.JSONOrderedObject;
+import net.sf.hale.util.GridUtil;
 import net.sf.hale.util.Point;
 
 /**
@@ -60,31 +61,27 @@ public class TileLayerList {
 	public JSONOrderedObject writeToJSON() {
 		JSONOrderedObject data = new JSONOrderedObject();
 		
-		Map<String, List<int[]>> out = new LinkedHashMap<String, List<int[]>>();
+		// the set of grid points containing each tile
+		Map<String, boolean[][]> out = new LinkedHashMap<String, boolean[][]>();
 		
 		for (int x = 0; x < tiles.length; x++) {
 			for (int y = 0; y < tiles[x].length; y++) {
-				// important to create the array here each time so it isn't overwritten later
-				int[] coords = new int[2];
-				coords[0] = x;
-				coords[1] = y;
-				
 				TileList list = tiles[x][y];
 				
 				for (Tile tile : list) {
 					String id = tile.getTileID();
 					
 					if (!out.containsKey(id)) {
-						out.put(id, new ArrayList<int[]>());
+						out.put(id, new boolean[tiles.length][tiles[x].length]);
 					}
 					
-					out.get(id).add(coords);
+					out.get(id)[x][y] = true;
 				}
 			}
 		}
 		
 		for (String tileID : out.keySet()) {
-			data.put(tileID, out.get(tileID).toArray());
+			data.put(tileID, GridUtil.encodePoints(out.get(tileID)));
 		}
 		
 		return data;
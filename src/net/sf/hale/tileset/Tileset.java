@@ -27,8 +27,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-import net.sf.hale.util.AreaUtil;
 import net.sf.hale.util.Point;
 import net.sf.hale.util.SimpleJSONArray;
 import net.sf.hale.util.SimpleJSONArrayEntry;
@@ -41,6 +41,11 @@ import net.sf.hale.util.SimpleJSONParser;
  * can potentially be many tilesets, each providing a separate environment, such
  * as a cave, a dungeon, a desert, or a swamp.  This class is immutable after
  * creation
+ *
+ * The borders matching a given point depend only on the terrain at that point and the
+ * six points adjacent to it, for nearly all borders.  The matching borders are therefore
+ * cached by the packed indices of those seven terrain types, so that filling in borders
+ * over a large set of terrain only evaluates each distinct neighborhood once.
  * @author Jared Stephen
  *
  */
@@ -59,6 +64,14 @@ public class Tileset {
 	
 	private final Map<String, BorderList> borderLists;
 	
+	// the border list between each pair of terrain types, indexed by terrain type index
+	private final BorderList[][] borderListsByTerrain;
+	
+	// the number of bits used by each terrain type in a neighborhood signature, or 0
+	// if there are too many terrain types for signatures to fit in a long
+	private final int signatureBits;
+	private final Map<Long, MatchingBorders> matchingBorders;
+	
 	private final int defaultVisibilityRadius;
 	private final String defaultTerrainType;
 	
@@ -151,6 +164,26 @@ public class Tileset {
 		}
 		
 		parser.warnOnUnusedKeys();
+		
+		List<TerrainType> terrainTypesByIndex = new ArrayList<TerrainType>(terrainTypes.values());
+		for (int i = 0; i < terrainTypesByIndex.size(); i++) {
+			terrainTypesByIndex.get(i).setIndex(i);
+		}
+		
+		this.borderListsByTerrain = new BorderList[terrainTypesByIndex.size()][terrainTypesByIndex.size()];
+		for (TerrainType center : terrainTypesByIndex) {
+			for (TerrainType adjacent : terrainTypesByIndex) {
+				String borderID = center.getBorderIDWith(adjacent);
+				if (borderID == null) continue;
+				
+				borderListsByTerrain[center.getIndex()][adjacent.getIndex()] = borderLists.get(borderID);
+			}
+		}
+		
+		// each terrain type is stored as index + 1, with 0 for no terrain
+		int bits = 32 - Integer.numberOfLeadingZeros(terrainTypesByIndex.size());
+		this.signatureBits = 7 * bits < 64 ? bits : 0;
+		this.matchingBorders = new ConcurrentHashMap<Long, MatchingBorders>();
 	}
 	
 	/**
@@ -229,23 +262,74 @@ public class Tileset {
 		TerrainType centerType = terrain[center.x][center.y];
 		if (centerType == null) return lists;
 		
-		Point[] adjacent = AreaUtil.getAdjacentTiles(center);
-		for (Point p : adjacent) {
-			if (p.x < 0 || p.x >= terrain.length || p.y < 0 || p.y >= terrain[0].length)
-				continue;
+		for (int i = 0; i < 6; i++) {
+			TerrainType adjacent = getAdjacentTerrain(terrain, center.x, center.y, i);
+			if (adjacent == null) continue;
 			
-			if (terrain[p.x][p.y] == null)
-				continue;
-			
-			String id = centerType.getBorderIDWith(terrain[p.x][p.y]);
-			if (id != null) {
-				lists.add(borderLists.get(id));
-			}
+			BorderList list = borderListsByTerrain[centerType.getIndex()][adjacent.getIndex()];
+			if (list != null) lists.add(list);
 		}
 		
 		return lists;
 	}
 	
+	/**
+	 * Returns the list of all borders, from all border lists, with conditions met at the
+	 * specified point in the terrain.  This is equivalent to calling
+	 * {@link BorderList#getMatchingBorders(TerrainType[][], Point)} for each list returned by
+	 * {@link #getMatchingBorderLists(TerrainType[][], Point)}, but in nearly all cases the
+	 * result is looked up from the terrain at and adjacent to the point without allocating
+	 * or evaluating any border conditions.
+	 * @param terrain the grid of terrain, containing only terrain types from this tileset
+	 * @param center the point to find the borders for
+	 * @return the list of matching borders.  The list is unmodifiable
+	 */
+	
+	public List<Border> getMatchingBorders(TerrainType[][] terrain, Point center) {
+		TerrainType centerType = terrain[center.x][center.y];
+		if (centerType == null) return Collections.emptyList();
+		
+		if (signatureBits == 0) {
+			return new MatchingBorders(terrain, center).getBorders(terrain, center);
+		}
+		
+		long signature = centerType.getIndex() + 1;
+		for (int i = 0; i < 6; i++) {
+			TerrainType adjacent = getAdjacentTerrain(terrain, center.x, center.y, i);
+			if (adjacent == null) continue;
+			
+			signature |= (long)(adjacent.getIndex() + 1) << (signatureBits * (i + 1));
+		}
+		
+		MatchingBorders matching = matchingBorders.get(signature);
+		if (matching == null) {
+			matching = new MatchingBorders(terrain, center);
+			matchingBorders.put(signature, matching);
+		}
+		
+		return matching.getBorders(terrain, center);
+	}
+	
+	/*
+	 * Returns the terrain at the adjacent tile with the specified index, in the order
+	 * of AreaUtil.getAdjacentTiles, or null if that tile is outside the terrain grid
+	 */
+	
+	private static TerrainType getAdjacentTerrain(TerrainType[][] terrain, int x, int y, int index) {
+		switch (index) {
+		case 0: y = y - 1; break;
+		case 1: y = y - ((x + 1) % 2); x = x + 1; break;
+		case 2: y = y + (x % 2); x = x + 1; break;
+		case 3: y = y + 1; break;
+		case 4: y = y + (x % 2); x = x - 1; break;
+		case 5: y = y - ((x + 1) % 2); x = x - 1; break;
+		}
+		
+		if (x < 0 || x >= terrain.length || y < 0 || y >= terrain[0].length) return null;
+		
+		return terrain[x][y];
+	}
+	
 	/**
 	 * Returns the FeatureType with the specified ID within this tileset, or null
 	 * if no such feature type exists
@@ -332,4 +416,57 @@ public class Tileset {
 	 */
 	
 	public String getName() { return name; }
+	
+	/*
+	 * The borders matching one neighborhood of terrain.  Local borders are matched when
+	 * this is created; any other borders from the matching lists are kept as candidates
+	 * and checked against the full terrain grid each time
+	 */
+	
+	private class MatchingBorders {
+		private final List<Border> borders;
+		private final boolean hasNonLocal;
+		
+		private MatchingBorders(TerrainType[][] terrain, Point center) {
+			TerrainType centerType = terrain[center.x][center.y];
+			
+			TerrainType[] adjacent = new TerrainType[6];
+			List<BorderList> lists = new ArrayList<BorderList>(6);
+			for (int i = 0; i < 6; i++) {
+				adjacent[i] = getAdjacentTerrain(terrain, center.x, center.y, i);
+				if (adjacent[i] == null) continue;
+				
+				BorderList list = borderListsByTerrain[centerType.getIndex()][adjacent[i].getIndex()];
+				if (list != null && !lists.contains(list)) lists.add(list);
+			}
+			
+			List<Border> borders = new ArrayList<Border>();
+			boolean hasNonLocal = false;
+			for (BorderList list : lists) {
+				for (Border border : list) {
+					if (!border.isLocal()) {
+						borders.add(border);
+						hasNonLocal = true;
+					} else if (border.isMetForAdjacent(centerType, adjacent)) {
+						borders.add(border);
+					}
+				}
+			}
+			
+			this.borders = Collections.unmodifiableList(borders);
+			this.hasNonLocal = hasNonLocal;
+		}
+		
+		private List<Border> getBorders(TerrainType[][] terrain, Point center) {
+			if (!hasNonLocal) return borders;
+			
+			List<Border> matching = new ArrayList<Border>(borders.size());
+			for (Border border : borders) {
+				if (border.isLocal() || border.isMetAtPoint(terrain, center))
+					matching.add(border);
+			}
+			
+			return Collections.unmodifiableList(matching);
+		}
+	}
 }
@@ -0,0 +1,109 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.util;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.sf.hale.Game;
+
+/**
+ * Writes autosaves in the background.  When an autosave is requested at a safe point,
+ * such as after an area transition or at the end of combat, the campaign save data is
+ * collected on the calling thread, exactly as for a normal save.  Only the encoding,
+ * compression, and writing of that data is moved to the low priority background thread.
+ * The collected data is built entirely from new containers and immutable values, so
+ * later changes to the campaign do not affect the data being written and no further
+ * copy is needed.
+ *
+ * Autosaves rotate between a number of slots set in the config, and each autosave is
+ * written to a temporary file and then renamed, so a partially written autosave is never
+ * visible in the save directory.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class Autosaver {
+	private static final AtomicBoolean saveInProgress = new AtomicBoolean(false);
+	
+	private static long lastAutosaveTime = 0l;
+	
+	/**
+	 * Resets the autosave timer, so that the next autosave will not occur until
+	 * the autosave interval has elapsed.  This should be called whenever a game
+	 * is started or loaded
+	 */
+	
+	public static void resetTimer() {
+		lastAutosaveTime = System.currentTimeMillis();
+	}
+	
+	/**
+	 * Requests that an autosave be written.  This should only be called from the main
+	 * thread at a point where the campaign state is consistent.  The autosave will not
+	 * be written if autosaving is disabled, if not enough time has passed since the last
+	 * autosave, if the game is in combat mode, or if an autosave is already being written.
+	 * @return true if an autosave was started, false otherwise
+	 */
+	
+	public static boolean requestAutosave() {
+		if (Game.config.getAutosaveSlots() == 0) return false;
+		
+		if (Game.curCampaign == null || Game.curCampaign.curArea == null) return false;
+		
+		if (Game.isInTurnMode() || Game.curCampaign.party.isDefeated()) return false;
+		
+		long curTime = System.currentTimeMillis();
+		if (curTime - lastAutosaveTime < Game.config.getAutosaveInterval()) return false;
+		
+		if (!saveInProgress.compareAndSet(false, true)) return false;
+		
+		final File file;
+		final SaveFileHeader header;
+		final Map<String, Object> data;
+		try {
+			file = SaveGameUtil.getNextAutosaveFile(Game.config.getAutosaveSlots());
+			header = new SaveFileHeader(Game.curCampaign);
+			data = Game.curCampaign.getSaveGameData();
+		} catch (Exception e) {
+			saveInProgress.set(false);
+			Logger.appendToErrorLog("Error collecting autosave data", e);
+			return false;
+		}
+		
+		lastAutosaveTime = curTime;
+		
+		WorkerPool.getBackgroundPool().execute(new Runnable() {
+			@Override public void run() {
+				try {
+					SaveGameUtil.writeSaveGameAtomic(file, header, data);
+				} catch (Exception e) {
+					Logger.appendToErrorLog("Error writing autosave to " + file.getPath(), e);
+				} finally {
+					saveInProgress.set(false);
+				}
+			}
+		});
+		
+		return true;
+	}
+}
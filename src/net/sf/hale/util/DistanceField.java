@@ -0,0 +1,341 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import net.sf.hale.Game;
+import net.sf.hale.area.Area;
+import net.sf.hale.entity.Creature;
+import net.sf.hale.entity.Door;
+import net.sf.hale.entity.Entity;
+import net.sf.hale.entity.Location;
+import net.sf.hale.entity.Path;
+import net.sf.hale.entity.Trap;
+import net.sf.hale.rules.Faction;
+import net.sf.hale.tileset.AreaElevationGrid;
+
+/**
+ * The shortest paths from the position of a creature to every point it can reach,
+ * found with a single flood from that position.  Once created, the field answers the
+ * path and distance to any number of destinations without searching again, which is
+ * much cheaper than a separate {@link PathFinder} search for each destination when
+ * several destinations are being compared.
+ *
+ * Movement costs and passability follow the same rules as {@link PathFinder}, and paths
+ * longer than the MaximumPathLength rule are not followed.  The field is not updated as
+ * the area changes; {@link #isValid()} returns false once the mover has moved or any
+ * entity that could affect its paths has changed.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class DistanceField {
+	private static final int Unreached = Integer.MAX_VALUE;
+	
+	private final Creature mover;
+	private final Location start;
+	private final Area area;
+	private final boolean ignoreCreatures;
+	
+	private final int width;
+	private final int height;
+	
+	// indexed by y * width + x
+	private final int[] cost;
+	private final int[] length;
+	private final int[] parent;
+	
+	private final List<Creature> threateningCreatures;
+	
+	private final long signature;
+	
+	/**
+	 * Creates a new distance field for the specified creature from its current location
+	 * @param mover the creature that is moving
+	 * @param ignoreCreatures true to ignore the positions of all creatures, as in
+	 * {@link AreaUtil#findShortestPathIgnoreCreatures(Creature, Point)}, or false to treat
+	 * creatures as blocking as in {@link AreaUtil#findShortestPath(Creature, Point, int)}
+	 */
+	
+	public DistanceField(Creature mover, boolean ignoreCreatures) {
+		long startTime = Profiler.begin();
+		
+		this.mover = mover;
+		this.start = mover.getLocation();
+		this.area = start.getArea();
+		this.ignoreCreatures = ignoreCreatures;
+		
+		boolean[][] pass = area.getPassability();
+		width = pass.length;
+		height = pass[0].length;
+		
+		cost = new int[width * height];
+		length = new int[width * height];
+		parent = new int[width * height];
+		
+		threateningCreatures = PathFinder.computeThreateningCreatures(mover, area);
+		signature = computeSignature();
+		
+		boolean[][] entityPass;
+		if (ignoreCreatures) entityPass = area.getEntities().getDoorPassabilities(mover);
+		else entityPass = area.getEntityPassabilities(mover);
+		
+		flood(pass, entityPass);
+		
+		Profiler.end("DistanceField", startTime);
+	}
+	
+	private void flood(boolean[][] pass, boolean[][] entityPass) {
+		int maxLength = Game.ruleset.getValue("MaximumPathLength");
+		AreaElevationGrid elevation = area.getElevationGrid();
+		
+		for (int i = 0; i < cost.length; i++) {
+			cost[i] = Unreached;
+		}
+		
+		int startIndex = start.getY() * width + start.getX();
+		cost[startIndex] = 0;
+		length[startIndex] = 0;
+		parent[startIndex] = -1;
+		
+		// entries are the cost in the high bits and the index in the low bits, so the
+		// queue orders points by cost
+		PriorityQueue<Long> queue = new PriorityQueue<Long>();
+		queue.add(Long.valueOf(startIndex));
+		
+		Point current = new Point();
+		while (!queue.isEmpty()) {
+			long entry = queue.poll();
+			int index = (int)entry;
+			
+			// skip stale entries for points that have since been reached more cheaply
+			if ((int)(entry >>> 32) != cost[index]) continue;
+			
+			// paths through this point would be too long
+			if (length[index] >= maxLength) continue;
+			
+			current.x = index % width;
+			current.y = index / width;
+			byte currentElev = elevation.getElevation(current.x, current.y);
+			
+			Point[] adjacent = AreaUtil.getAdjacentTiles(current);
+			for (Point p : adjacent) {
+				if (p.x < 0 || p.x >= width || p.y < 0 || p.y >= height) continue;
+				
+				if (!pass[p.x][p.y] || !entityPass[p.x][p.y]) continue;
+				
+				if (elevation.getElevation(p.x, p.y) != currentElev) continue;
+				
+				int newCost = cost[index] + PathFinder.getCost(mover, area, p.x, p.y, threateningCreatures);
+				
+				int adjIndex = p.y * width + p.x;
+				if (newCost < cost[adjIndex]) {
+					cost[adjIndex] = newCost;
+					length[adjIndex] = length[index] + 1;
+					parent[adjIndex] = index;
+					
+					queue.add(Long.valueOf(((long)newCost << 32) | adjIndex));
+				}
+			}
+		}
+	}
+	
+	/*
+	 * Combines the state of everything that the paths in this field depend on, other than
+	 * the fixed terrain of the area, into a single value.  Faction membership and the
+	 * relationships between factions are included, as they determine which creatures
+	 * threaten attacks of opportunity and which traps are dangerous to the mover
+	 */
+	
+	private long computeSignature() {
+		long value = mover.stats.isHidden() ? 1 : 0;
+		value = RandomStream.mix(value ^ (Game.isInTurnMode() ? 2 : 0));
+		value = RandomStream.mix(value ^ getFactionIndex(mover) ^ ((long)Faction.getRelationshipVersion() << 32));
+		
+		synchronized(area.getEntities()) {
+			for (Entity entity : area.getEntities()) {
+				if (entity == mover) continue;
+				
+				long state = entity.getLocation().getX() | (entity.getLocation().getY() << 16);
+				
+				if (entity instanceof Door) {
+					if (((Door)entity).isOpen()) state |= 1L << 32;
+				} else if (entity instanceof Creature) {
+					Creature creature = (Creature)entity;
+					
+					if (creature.stats.isHelpless()) state |= 1L << 33;
+					if (creature.canTakeMoveAoOIgnoringLocation(mover)) state |= 1L << 34;
+				} else if (entity instanceof Trap) {
+					if (((Trap)entity).isSpotted()) state |= 1L << 35;
+				} else {
+					continue;
+				}
+				
+				// the faction index fits in the 12 bits above the state flags
+				state |= (long)(getFactionIndex(entity) & 0xFFF) << 36;
+				
+				value = RandomStream.mix(value ^ state ^ System.identityHashCode(entity));
+			}
+		}
+		
+		return value;
+	}
+	
+	private static int getFactionIndex(Entity entity) {
+		Faction faction = entity.getFaction();
+		
+		return faction == null ? -1 : faction.getIndex();
+	}
+	
+	/**
+	 * Returns the creature that this field was created for
+	 * @return the moving creature
+	 */
+	
+	public Creature getMover() {
+		return mover;
+	}
+	
+	/**
+	 * Returns whether this field ignores the positions of creatures
+	 * @return true if creatures are ignored, false if they block movement
+	 */
+	
+	public boolean isIgnoringCreatures() {
+		return ignoreCreatures;
+	}
+	
+	/**
+	 * Returns true if the paths in this field are still the paths that would be found
+	 * by a new search: the mover has not moved, and no creature, door, or trap in the
+	 * area has changed in a way that affects movement
+	 * @return whether this field is still valid
+	 */
+	
+	public boolean isValid() {
+		if (!start.equals(mover.getLocation())) return false;
+		
+		return signature == computeSignature();
+	}
+	
+	/**
+	 * Returns the number of tiles the mover must move through to reach the specified point
+	 * @param x the grid x coordinate
+	 * @param y the grid y coordinate
+	 * @return the path length to the point, or Integer.MAX_VALUE if the point cannot
+	 * be reached
+	 */
+	
+	public int getPathLength(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height) return Unreached;
+		
+		int index = y * width + x;
+		
+		return cost[index] == Unreached ? Unreached : length[index];
+	}
+	
+	/**
+	 * Returns the shortest path from the mover to the specified point
+	 * @param end the destination point
+	 * @return the path, which is empty if the mover is already at the end point, or
+	 * null if no path exists.  If creatures are not being ignored, there is no path to
+	 * a point occupied by another creature
+	 */
+	
+	public Path getPath(Point end) {
+		if (start.getX() == end.x && start.getY() == end.y) return new Path(area);
+		
+		if (!isEndPoint(end)) return null;
+		
+		return createPath(end.y * width + end.x);
+	}
+	
+	/**
+	 * Returns the shortest path from the mover to any point the specified distance away
+	 * from the specified center point, in the same way as
+	 * {@link AreaUtil#findShortestPath(Creature, Point, int)}
+	 * @param center the center of the destination points
+	 * @param distanceAway the distance from the center point that the mover must reach.
+	 * If zero, the path is to the center point
+	 * @return the shortest available path, which is empty if the mover is already the
+	 * specified distance away, or null if no path exists
+	 */
+	
+	public Path getPathWithin(Point center, int distanceAway) {
+		if (distanceAway == 0) return getPath(center);
+		
+		int bestIndex = -1;
+		for (int i = 0; i < distanceAway * 6; i++) {
+			Point goal = AreaUtil.convertPolarToGrid(center, distanceAway, i);
+			
+			if (start.getX() == goal.x && start.getY() == goal.y) return new Path(area);
+			
+			if (!isEndPoint(goal)) continue;
+			
+			int index = goal.y * width + goal.x;
+			if (bestIndex == -1 || cost[index] < cost[bestIndex]) bestIndex = index;
+		}
+		
+		if (bestIndex == -1) return null;
+		
+		return createPath(bestIndex);
+	}
+	
+	private boolean isEndPoint(Point p) {
+		if (p.x < 0 || p.x >= width || p.y < 0 || p.y >= height) return false;
+		
+		if (cost[p.y * width + p.x] == Unreached) return false;
+		
+		return ignoreCreatures || area.getCreatureAtGridPoint(p.x, p.y) == null;
+	}
+	
+	/*
+	 * Follows the parents back from the end to the start.  As in the PathFinder, the
+	 * path is stored from the end backwards, and attacks of opportunity are provoked
+	 * leaving each point other than the end
+	 */
+	
+	private Path createPath(int endIndex) {
+		List<Point> points = new ArrayList<Point>(length[endIndex]);
+		List<Creature> attacksOfOpportunity = new ArrayList<Creature>();
+		
+		points.add(new Point(endIndex % width, endIndex / width));
+		
+		for (int index = parent[endIndex]; index != -1; index = parent[index]) {
+			int x = index % width;
+			int y = index / width;
+			
+			for (Creature creature : threateningCreatures) {
+				if (creature.threatensPointInCurrentArea(x, y)) {
+					attacksOfOpportunity.add(creature);
+				}
+			}
+			
+			// the starting point is not part of the path
+			if (parent[index] != -1) points.add(new Point(x, y));
+		}
+		
+		return new Path(area, points, attacksOfOpportunity);
+	}
+}
@@ -292,6 +292,22 @@ public class FileUtil {
 		return getHex(b);
 	}
 	
+	/**
+	 * Gets the MD5Sum of the UTF-8 encoding of the specified String
+	 * @param contents the String to compute the sum for
+	 * @return the MD5Sum for the specified String
+	 */
+	
+	public static String getMD5Sum(String contents) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("MD5");
+			
+			return getHex(digest.digest(contents.getBytes("UTF-8")));
+		} catch (Exception e) {
+			throw new IllegalStateException("MD5 is not available", e);
+		}
+	}
+	
 	private static byte[] createSum(File file) throws IOException, NoSuchAlgorithmException {
 		if (!file.exists()) return null;
 		
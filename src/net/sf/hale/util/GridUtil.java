@@ -0,0 +1,333 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.util;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Encodes area grids as compact base64 strings for area resource files, in place of
+ * nested arrays with one JSON number per grid cell.  All grids are stored in row
+ * major order, with the index of grid point (x, y) equal to y * width + x, matching
+ * the row order of the older array format.
+ *
+ * Three encodings are provided:  boolean grids are stored as bitsets, byte grids are
+ * stored as runs of equal values, and sets of grid points, such as the positions of
+ * a given tile, are stored as alternating runs of points not in and in the set.
+ * Run lengths are written as variable length integers, so long runs take few bytes.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class GridUtil {
+	private static final char[] Base64Chars =
+		"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+	
+	private static final int[] Base64Values = new int[128];
+	
+	static {
+		for (int i = 0; i < Base64Values.length; i++) {
+			Base64Values[i] = -1;
+		}
+		
+		for (int i = 0; i < Base64Chars.length; i++) {
+			Base64Values[Base64Chars[i]] = i;
+		}
+	}
+	
+	/**
+	 * Encodes the specified boolean grid as a base64 bitset
+	 * @param grid the grid, indexed as grid[x][y]
+	 * @return the encoded grid
+	 */
+	
+	public static String encodeBooleans(boolean[][] grid) {
+		int width = grid.length;
+		int height = width == 0 ? 0 : grid[0].length;
+		
+		byte[] bits = new byte[(width * height + 7) / 8];
+		
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (grid[x][y]) {
+					int index = y * width + x;
+					bits[index >> 3] |= 1 << (index & 7);
+				}
+			}
+		}
+		
+		return encodeBase64(bits);
+	}
+	
+	/**
+	 * Decodes the specified base64 bitset into the specified grid.  The grid must have
+	 * the same dimensions as the grid that was encoded
+	 * @param data the encoded grid, created with {@link #encodeBooleans(boolean[][])}
+	 * @param grid the grid to decode into, indexed as grid[x][y]
+	 */
+	
+	public static void decodeBooleans(String data, boolean[][] grid) {
+		int width = grid.length;
+		int height = width == 0 ? 0 : grid[0].length;
+		
+		byte[] bits = decodeBase64(data);
+		if (bits.length < (width * height + 7) / 8) {
+			throw new IllegalArgumentException("Boolean grid data is too short for a " + width + "x" + height + " grid");
+		}
+		
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int index = y * width + x;
+				grid[x][y] = (bits[index >> 3] & (1 << (index & 7))) != 0;
+			}
+		}
+	}
+	
+	/**
+	 * Encodes the specified byte grid as base64 runs of equal values
+	 * @param grid the grid, indexed as grid[x][y]
+	 * @return the encoded grid
+	 */
+	
+	public static String encodeBytes(byte[][] grid) {
+		int width = grid.length;
+		int height = width == 0 ? 0 : grid[0].length;
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		
+		int runLength = 0;
+		byte runValue = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (runLength > 0 && grid[x][y] == runValue) {
+					runLength++;
+				} else {
+					if (runLength > 0) writeRun(out, runLength, runValue);
+					
+					runValue = grid[x][y];
+					runLength = 1;
+				}
+			}
+		}
+		
+		if (runLength > 0) writeRun(out, runLength, runValue);
+		
+		return encodeBase64(out.toByteArray());
+	}
+	
+	/**
+	 * Decodes the specified runs into the specified grid.  The grid must have the same
+	 * dimensions as the grid that was encoded
+	 * @param data the encoded grid, created with {@link #encodeBytes(byte[][])}
+	 * @param grid the grid to decode into, indexed as grid[x][y]
+	 */
+	
+	public static void decodeBytes(String data, byte[][] grid) {
+		int width = grid.length;
+		int height = width == 0 ? 0 : grid[0].length;
+		
+		byte[] bytes = decodeBase64(data);
+		int[] position = new int[1];
+		
+		int index = 0;
+		while (position[0] < bytes.length) {
+			int runLength = readVarInt(bytes, position);
+			byte runValue = bytes[position[0]++];
+			
+			if (index + runLength > width * height) {
+				throw new IllegalArgumentException("Byte grid data is too long for a " + width + "x" + height + " grid");
+			}
+			
+			for (int i = 0; i < runLength; i++) {
+				grid[index % width][index / width] = runValue;
+				index++;
+			}
+		}
+	}
+	
+	/**
+	 * Encodes the specified set of grid points as base64 runs.  The runs alternate
+	 * between points that are not in the set and points that are, starting with
+	 * points not in the set.
+	 * @param grid the set of points, true for points in the set, indexed as grid[x][y]
+	 * @return the encoded set of points
+	 */
+	
+	public static String encodePoints(boolean[][] grid) {
+		int width = grid.length;
+		int height = width == 0 ? 0 : grid[0].length;
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		
+		boolean runValue = false;
+		int runLength = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (grid[x][y] == runValue) {
+					runLength++;
+				} else {
+					writeVarInt(out, runLength);
+					
+					runValue = grid[x][y];
+					runLength = 1;
+				}
+			}
+		}
+		
+		// the final run of points not in the set is implied
+		if (runValue) writeVarInt(out, runLength);
+		
+		return encodeBase64(out.toByteArray());
+	}
+	
+	/**
+	 * Decodes the specified set of grid points into a list of coordinates
+	 * @param data the encoded set of points, created with {@link #encodePoints(boolean[][])}
+	 * @param width the width of the encoded grid
+	 * @return the list of points in the set, as x and y coordinates, in the order
+	 * x0, y0, x1, y1, ... The length of the returned array is always even
+	 */
+	
+	public static int[] decodePoints(String data, int width) {
+		byte[] bytes = decodeBase64(data);
+		int[] position = new int[1];
+		
+		// the number of points is at most the number of points in all the runs, but
+		// this is usually much larger than needed; grow the array as needed instead
+		int[] points = new int[32];
+		int numPoints = 0;
+		
+		int index = 0;
+		boolean runValue = false;
+		while (position[0] < bytes.length) {
+			int runLength = readVarInt(bytes, position);
+			
+			if (runValue) {
+				for (int i = 0; i < runLength; i++) {
+					if (2 * numPoints + 2 > points.length) {
+						int[] newPoints = new int[points.length * 2];
+						System.arraycopy(points, 0, newPoints, 0, points.length);
+						points = newPoints;
+					}
+					
+					points[2 * numPoints] = (index + i) % width;
+					points[2 * numPoints + 1] = (index + i) / width;
+					numPoints++;
+				}
+			}
+			
+			index += runLength;
+			runValue = !runValue;
+		}
+		
+		int[] result = new int[2 * numPoints];
+		System.arraycopy(points, 0, result, 0, result.length);
+		return result;
+	}
+	
+	private static void writeRun(ByteArrayOutputStream out, int runLength, byte runValue) {
+		writeVarInt(out, runLength);
+		out.write(runValue);
+	}
+	
+	private static void writeVarInt(ByteArrayOutputStream out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		
+		out.write(value);
+	}
+	
+	private static int readVarInt(byte[] bytes, int[] position) {
+		int value = 0;
+		int shift = 0;
+		
+		while (true) {
+			if (position[0] >= bytes.length || shift > 28) {
+				throw new IllegalArgumentException("Invalid run length in grid data");
+			}
+			
+			int b = bytes[position[0]++];
+			value |= (b & 0x7F) << shift;
+			
+			if ((b & 0x80) == 0) return value;
+			
+			shift += 7;
+		}
+	}
+	
+	/**
+	 * Encodes the specified bytes as a base64 String, with padding
+	 * @param bytes the bytes to encode
+	 * @return the base64 String
+	 */
+	
+	public static String encodeBase64(byte[] bytes) {
+		StringBuilder sb = new StringBuilder((bytes.length + 2) / 3 * 4);
+		
+		for (int i = 0; i < bytes.length; i += 3) {
+			int b0 = bytes[i] & 0xFF;
+			int b1 = i + 1 < bytes.length ? bytes[i + 1] & 0xFF : 0;
+			int b2 = i + 2 < bytes.length ? bytes[i + 2] & 0xFF : 0;
+			
+			sb.append(Base64Chars[b0 >> 2]);
+			sb.append(Base64Chars[((b0 & 0x03) << 4) | (b1 >> 4)]);
+			sb.append(i + 1 < bytes.length ? Base64Chars[((b1 & 0x0F) << 2) | (b2 >> 6)] : '=');
+			sb.append(i + 2 < bytes.length ? Base64Chars[b2 & 0x3F] : '=');
+		}
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Decodes the specified base64 String.  Whitespace is ignored
+	 * @param data the base64 String
+	 * @return the decoded bytes
+	 */
+	
+	public static byte[] decodeBase64(String data) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(data.length() * 3 / 4);
+		
+		int buffer = 0;
+		int bits = 0;
+		for (int i = 0; i < data.length(); i++) {
+			char c = data.charAt(i);
+			
+			if (c == '=') break;
+			if (Character.isWhitespace(c)) continue;
+			
+			int value = c < Base64Values.length ? Base64Values[c] : -1;
+			if (value == -1) {
+				throw new IllegalArgumentException("Invalid base64 character '" + c + "'");
+			}
+			
+			buffer = (buffer << 6) | value;
+			bits += 6;
+			
+			if (bits >= 8) {
+				bits -= 8;
+				out.write((buffer >> bits) & 0xFF);
+			}
+		}
+		
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cached lines between the centers of two grid points.  The set of hexes crossed by
+ * the line between two hex centers, as found by
+ * {@link AreaUtil#findIntersectingHexes(int, int, int, int)}, depends only on the offset
+ * between the two points and on whether the starting column is odd.  Each line is
+ * therefore computed once, stored as a sequence of offsets from the starting point,
+ * and reused for any pair of points with the same offset.
+ *
+ * All methods are thread safe.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class HexLine {
+	// the cache is cleared rather than grown past this number of lines
+	private static final int MaxCachedLines = 65536;
+	
+	private static final Map<Integer, int[]> lines = new ConcurrentHashMap<Integer, int[]>();
+	
+	/**
+	 * Returns the offsets of the hexes crossed by the line from the center of the start
+	 * point to the center of the end point.  The start point is not included, but the end
+	 * point is.  The returned array alternates x and y offsets from the start point, so the
+	 * nth hex is at (x0 + offsets[2n], y0 + offsets[2n + 1]).  The returned array is
+	 * shared and must not be modified.
+	 * @param x0 the start grid x coordinate
+	 * @param y0 the start grid y coordinate
+	 * @param x1 the end grid x coordinate
+	 * @param y1 the end grid y coordinate
+	 * @return the offsets of the hexes crossed by the line
+	 */
+	
+	public static int[] getOffsets(int x0, int y0, int x1, int y1) {
+		int dx = x1 - x0;
+		int dy = y1 - y0;
+		int parity = x0 & 1;
+		
+		// pack the offsets, which are well under 2^15 for any area
+		Integer key = Integer.valueOf(((dx & 0x7FFF) << 16) | ((dy & 0x7FFF) << 1) | parity);
+		
+		int[] offsets = lines.get(key);
+		if (offsets == null) {
+			offsets = computeOffsets(dx, dy, parity);
+			
+			if (lines.size() >= MaxCachedLines) lines.clear();
+			lines.put(key, offsets);
+		}
+		
+		return offsets;
+	}
+	
+	/*
+	 * Finds the line in a frame far enough from the origin that all screen coordinates
+	 * are positive, as required by the screen to grid conversion.  Moving the start by an
+	 * even number of columns or any number of rows does not change the hexes crossed
+	 */
+	
+	private static int[] computeOffsets(int dx, int dy, int parity) {
+		int base = 2 * (Math.abs(dx) + Math.abs(dy) + 1);
+		int startX = base + parity;
+		int startY = base;
+		
+		Point from = AreaUtil.convertGridToScreenAndCenter(startX, startY);
+		Point to = AreaUtil.convertGridToScreenAndCenter(startX + dx, startY + dy);
+		
+		if (from.x == to.x && from.y == to.y) return new int[0];
+		
+		List<Point> hexes = AreaUtil.findIntersectingHexes(from.x, from.y, to.x, to.y);
+		
+		int[] offsets = new int[hexes.size() * 2];
+		for (int i = 0; i < hexes.size(); i++) {
+			offsets[2 * i] = hexes.get(i).x - startX;
+			offsets[2 * i + 1] = hexes.get(i).y - startY;
+		}
+		
+		return offsets;
+	}
+}
@@ -85,7 +85,17 @@ public class PathFinder {
 	}
 	
 	private static Path findPath(Creature mover, Point end, List<Point> goals, Data data, EndPointStatus status) {
-		List<Creature> threateningCreatures = computeThreateningCreatures(mover, data);
+		long start = Profiler.begin();
+		
+		Path path = search(mover, end, goals, data, status);
+		
+		Profiler.end("PathFinder.findPath", start);
+		
+		return path;
+	}
+	
+	private static Path search(Creature mover, Point end, List<Point> goals, Data data, EndPointStatus status) {
+		List<Creature> threateningCreatures = computeThreateningCreatures(mover, data.area);
 		
 		Point start = mover.getLocation().toPoint();
 		Point lowest = new Point();
@@ -151,7 +161,7 @@ public class PathFinder {
 				// if the elevation is different from the previous point elevation
 				if (data.area.getElevationGrid().getElevation(adjacent[i].x, adjacent[i].y) != lowestElev) continue;
 				
-				int tentativeGScore = data.gScore[lowest.x][lowest.y] + getCost(mover, data, adjacent[i], threateningCreatures);
+				int tentativeGScore = data.gScore[lowest.x][lowest.y] + getCost(mover, data.area, adjacent[i].x, adjacent[i].y, threateningCreatures);
 				
 				boolean tentativeIsBetter;
 				if (!data.open[adjacent[i].x][adjacent[i].y]) {
@@ -184,14 +194,14 @@ public class PathFinder {
 	 * the mover were to move into an appropriate position
 	 */
 	
-	private static List<Creature> computeThreateningCreatures(Creature mover, Data data) {
+	static List<Creature> computeThreateningCreatures(Creature mover, Area area) {
 		List<Creature> creatures = new ArrayList<Creature>();
 		
 		if (mover.stats.isHidden()) return creatures;
 		if (!Game.isInTurnMode()) return creatures;
 
-		synchronized(data.area.getEntities()) {
-			for (Entity entity : data.area.getEntities()) {
+		synchronized(area.getEntities()) {
+			for (Entity entity : area.getEntities()) {
 				if (entity == mover) continue;
 				
 				if (! (entity instanceof Creature)) continue;
@@ -212,17 +222,17 @@ public class PathFinder {
 	 * without traps are preferred
 	 */
 	
-	private static final int getCost(Creature mover, Data data, Point position, List<Creature> threateningCreatures) {
+	static final int getCost(Creature mover, Area area, int x, int y, List<Creature> threateningCreatures) {
 		int cost = 1;
 		
 		// add cost for threatening creatures
 		for (Creature creature : threateningCreatures) {
-			if (creature.threatensPointInCurrentArea(position.x, position.y)) cost++;
+			if (creature.threatensPointInCurrentArea(x, y)) cost++;
 		}
 		
 		// add cost for traps but only for player characters
 		if (mover.isPlayerFaction()) {
-			Trap trap = data.area.getTrapAtGridPoint(position);
+			Trap trap = area.getTrapAtGridPoint(x, y);
 			if (trap != null && trap.isSpotted() && trap.getFaction().isHostile(mover)) {
 				cost += 2;
 			}
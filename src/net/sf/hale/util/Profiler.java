@@ -0,0 +1,309 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.util;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import net.minidev.json.JSONValue;
+import net.sf.hale.Game;
+
+/**
+ * Measures the time spent in named sections of code, such as the phases of the main
+ * loop, script functions, path finding, and saving and loading.  Callers surround the
+ * section with {@link #begin()} and {@link #end(String, long)}.  While the profiler is
+ * disabled, begin returns immediately and end does nothing, so the scopes may be left
+ * in place permanently.
+ *
+ * For each section, the number of calls, total and maximum time, and a histogram of
+ * durations are kept for the current window, and the window is rolled over by
+ * {@link #rollWindow()}.  The most recent timings are also kept as trace events, which
+ * can be exported in the Chrome trace format with {@link #exportTrace()} and viewed in
+ * chrome://tracing.
+ *
+ * All methods are thread safe, and recording a timing does not lock.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class Profiler {
+	/**
+	 * The value returned by {@link #begin()} when the profiler is disabled
+	 */
+	
+	public static final long Disabled = Long.MIN_VALUE;
+	
+	// histogram bucket i holds durations under 2^i microseconds; the last bucket holds the rest
+	private static final int HistogramBuckets = 24;
+	
+	private static final int MaxTraceEvents = 65536;
+	
+	private static volatile boolean enabled = false;
+	
+	private static final ConcurrentMap<String, Section> sections = new ConcurrentHashMap<String, Section>();
+	
+	private static final AtomicReferenceArray<TraceEvent> traceEvents = new AtomicReferenceArray<TraceEvent>(MaxTraceEvents);
+	private static final AtomicLong traceEventCount = new AtomicLong();
+	
+	private static final long traceStartTime = System.nanoTime();
+	
+	/**
+	 * Returns whether timings are currently being recorded
+	 * @return whether the profiler is enabled
+	 */
+	
+	public static boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * Sets whether timings are recorded.  Enabling the profiler starts a new window
+	 * @param enabled whether the profiler should be enabled
+	 */
+	
+	public static void setEnabled(boolean enabled) {
+		if (enabled && !Profiler.enabled) rollWindow();
+		
+		Profiler.enabled = enabled;
+	}
+	
+	/**
+	 * Marks the start of a section of code
+	 * @return the start time to pass to {@link #end(String, long)}, or {@link #Disabled}
+	 * if the profiler is disabled
+	 */
+	
+	public static long begin() {
+		if (!enabled) return Disabled;
+		
+		return System.nanoTime();
+	}
+	
+	/**
+	 * Marks the end of a section of code and records the time spent in it.  Callers
+	 * that build the section name should check for {@link #Disabled} first, to avoid
+	 * building the name when the profiler is not in use
+	 * @param section the name of the section
+	 * @param start the value returned by {@link #begin()} at the start of the section
+	 */
+	
+	public static void end(String section, long start) {
+		if (start == Disabled) return;
+		
+		long duration = System.nanoTime() - start;
+		
+		Section s = sections.get(section);
+		if (s == null) {
+			Section newSection = new Section(section);
+			s = sections.putIfAbsent(section, newSection);
+			if (s == null) s = newSection;
+		}
+		
+		s.record(duration);
+		
+		long index = traceEventCount.getAndIncrement();
+		traceEvents.set((int)(index % MaxTraceEvents), new TraceEvent(section, Thread.currentThread().getId(),
+				start - traceStartTime, duration));
+	}
+	
+	/**
+	 * Returns the timings of all sections recorded since the last call to this method, and
+	 * starts a new window.  The sections are sorted with the most total time first
+	 * @return the list of section timings for the window that has just finished
+	 */
+	
+	public static List<Timing> rollWindow() {
+		List<Timing> timings = new ArrayList<Timing>();
+		
+		for (Section section : sections.values()) {
+			Timing timing = section.roll();
+			
+			if (timing.count > 0) timings.add(timing);
+		}
+		
+		Collections.sort(timings, new Comparator<Timing>() {
+			@Override public int compare(Timing a, Timing b) {
+				if (a.totalNanos > b.totalNanos) return -1;
+				else if (a.totalNanos < b.totalNanos) return 1;
+				else return a.section.compareTo(b.section);
+			}
+		});
+		
+		return timings;
+	}
+	
+	/**
+	 * Writes the recorded trace events to a new file in the log directory, in the
+	 * Chrome trace event format
+	 * @return the file that was written
+	 * @throws IOException if an error occurs writing the file
+	 */
+	
+	public static File exportTrace() throws IOException {
+		File dir = new File(Game.getLogBaseDirectory());
+		if (!dir.exists()) dir.mkdirs();
+		
+		File file = new File(dir, "trace-" + System.currentTimeMillis() + ".json");
+		
+		long count = traceEventCount.get();
+		long first = Math.max(0, count - MaxTraceEvents);
+		
+		PrintWriter out = new PrintWriter(new FileWriter(file));
+		try {
+			out.println("{\"traceEvents\":[");
+			
+			boolean firstEvent = true;
+			for (long i = first; i < count; i++) {
+				TraceEvent event = traceEvents.get((int)(i % MaxTraceEvents));
+				if (event == null) continue;
+				
+				if (!firstEvent) out.println(",");
+				firstEvent = false;
+				
+				// times are in microseconds
+				out.print("{\"name\":\"" + JSONValue.escape(event.section) + "\",\"cat\":\"hale\",\"ph\":\"X\"," +
+						"\"ts\":" + (event.start / 1000) + ",\"dur\":" + (event.duration / 1000) +
+						",\"pid\":1,\"tid\":" + event.threadID + "}");
+			}
+			
+			out.println();
+			out.println("]}");
+		} finally {
+			out.close();
+		}
+		
+		return file;
+	}
+	
+	/**
+	 * The timings of one section over one window
+	 * @author Jared Stephen
+	 *
+	 */
+	
+	public static class Timing {
+		/** The name of the section */
+		public final String section;
+		
+		/** The number of times the section was run */
+		public final long count;
+		
+		/** The total time spent in the section, in nanoseconds */
+		public final long totalNanos;
+		
+		/** The longest time spent in one run of the section, in nanoseconds */
+		public final long maxNanos;
+		
+		/** An upper bound on the 95th percentile time, in nanoseconds */
+		public final long percentile95Nanos;
+		
+		private Timing(String section, long count, long totalNanos, long maxNanos, long percentile95Nanos) {
+			this.section = section;
+			this.count = count;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+			this.percentile95Nanos = percentile95Nanos;
+		}
+	}
+	
+	private static class Section {
+		private final String name;
+		
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong totalNanos = new AtomicLong();
+		private final AtomicLong maxNanos = new AtomicLong();
+		private final AtomicLongArray histogram = new AtomicLongArray(HistogramBuckets);
+		
+		private Section(String name) {
+			this.name = name;
+		}
+		
+		private void record(long duration) {
+			count.incrementAndGet();
+			totalNanos.addAndGet(duration);
+			
+			long max;
+			do {
+				max = maxNanos.get();
+			} while (duration > max && !maxNanos.compareAndSet(max, duration));
+			
+			long micros = duration / 1000;
+			int bucket = micros <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+			histogram.incrementAndGet(Math.min(bucket, HistogramBuckets - 1));
+		}
+		
+		/*
+		 * Timings recorded while rolling over may be split between the two windows,
+		 * which is fine for display purposes
+		 */
+		
+		private Timing roll() {
+			long windowCount = count.getAndSet(0);
+			long windowTotal = totalNanos.getAndSet(0);
+			long windowMax = maxNanos.getAndSet(0);
+			
+			long[] buckets = new long[HistogramBuckets];
+			long bucketTotal = 0;
+			for (int i = 0; i < HistogramBuckets; i++) {
+				buckets[i] = histogram.getAndSet(i, 0);
+				bucketTotal += buckets[i];
+			}
+			
+			long percentile95 = windowMax;
+			long cumulative = 0;
+			for (int i = 0; i < HistogramBuckets - 1; i++) {
+				cumulative += buckets[i];
+				
+				if (cumulative * 100 >= bucketTotal * 95) {
+					percentile95 = Math.min(windowMax, (1L << i) * 1000);
+					break;
+				}
+			}
+			
+			return new Timing(name, windowCount, windowTotal, windowMax, percentile95);
+		}
+	}
+	
+	private static class TraceEvent {
+		private final String section;
+		private final long threadID;
+		private final long start;
+		private final long duration;
+		
+		private TraceEvent(String section, long threadID, long start, long duration) {
+			this.section = section;
+			this.threadID = threadID;
+			this.start = start;
+			this.duration = duration;
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.util;
+
+/**
+ * A source of pseudorandom values.  {@link net.sf.hale.rules.Dice} draws all of its
+ * rolls from a RandomSource, which is normally a {@link RandomStream}.
+ * @author Jared Stephen
+ *
+ */
+
+public interface RandomSource {
+	/**
+	 * Returns the next pseudorandom long
+	 * @return a uniformly distributed long
+	 */
+	
+	public long nextLong();
+	
+	/**
+	 * Returns the next pseudorandom int between 0 (inclusive) and the
+	 * specified bound (exclusive)
+	 * @param bound the upper bound, which must be positive
+	 * @return a uniformly distributed int from 0 to bound - 1
+	 */
+	
+	public int nextInt(int bound);
+	
+	/**
+	 * Returns the next pseudorandom double between 0.0 (inclusive) and 1.0 (exclusive)
+	 * @return a uniformly distributed double
+	 */
+	
+	public double nextDouble();
+	
+	/**
+	 * Returns the next pseudorandom float between 0.0 (inclusive) and 1.0 (exclusive)
+	 * @return a uniformly distributed float
+	 */
+	
+	public float nextFloat();
+	
+	/**
+	 * Returns the next pseudorandom, normally distributed double with mean 0.0
+	 * and standard deviation 1.0
+	 * @return a normally distributed double
+	 */
+	
+	public double nextGaussian();
+}
@@ -0,0 +1,223 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.util;
+
+import java.math.BigInteger;
+
+/**
+ * A fast pseudorandom number generator using the xoroshiro128+ algorithm, seeded
+ * with SplitMix64.  The full state of a stream is two longs, which can be saved with
+ * {@link #getState()} and restored with {@link #setState(String)} to replay the
+ * same sequence of values.  New, statistically independent streams can be split
+ * off from an existing stream with {@link #split()}.
+ *
+ * This class is not thread safe.  Each thread drawing random numbers should use
+ * its own stream.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class RandomStream implements RandomSource {
+	private static final long GoldenGamma = 0x9E3779B97F4A7C15L;
+	
+	private long s0, s1;
+	
+	private double nextGaussian;
+	private boolean hasNextGaussian;
+	
+	/**
+	 * Creates a new stream with its state derived from the specified seed
+	 * @param seed the seed
+	 */
+	
+	public RandomStream(long seed) {
+		setSeed(seed);
+	}
+	
+	/**
+	 * Resets this stream to the state derived from the specified seed
+	 * @param seed the seed
+	 */
+	
+	public void setSeed(long seed) {
+		s0 = mix(seed + GoldenGamma);
+		s1 = mix(seed + 2 * GoldenGamma);
+		
+		// the all zero state is the only invalid state
+		if (s0 == 0 && s1 == 0) s1 = GoldenGamma;
+		
+		hasNextGaussian = false;
+	}
+	
+	/**
+	 * Creates a new stream, seeded from the next value of this stream.  The new
+	 * stream is independent of this stream
+	 * @return the new stream
+	 */
+	
+	public RandomStream split() {
+		return new RandomStream(nextLong());
+	}
+	
+	/**
+	 * Returns the next pseudorandom long
+	 * @return a uniformly distributed long
+	 */
+	
+	public long nextLong() {
+		long result = s0 + s1;
+		
+		long t = s1 ^ s0;
+		s0 = Long.rotateLeft(s0, 24) ^ t ^ (t << 16);
+		s1 = Long.rotateLeft(t, 37);
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the next pseudorandom int between 0 (inclusive) and the
+	 * specified bound (exclusive)
+	 * @param bound the upper bound, which must be positive
+	 * @return a uniformly distributed int from 0 to bound - 1
+	 */
+	
+	public int nextInt(int bound) {
+		if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+		
+		int r = (int)(nextLong() >>> 33);
+		int m = bound - 1;
+		
+		if ((bound & m) == 0) {
+			// power of two
+			return (int)((bound * (long)r) >> 31);
+		}
+		
+		// reject values from the incomplete final range to avoid bias
+		for (int u = r; u - (r = u % bound) + m < 0; u = (int)(nextLong() >>> 33));
+		
+		return r;
+	}
+	
+	/**
+	 * Returns the next pseudorandom double between 0.0 (inclusive) and 1.0 (exclusive)
+	 * @return a uniformly distributed double
+	 */
+	
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+	
+	/**
+	 * Returns the next pseudorandom float between 0.0 (inclusive) and 1.0 (exclusive)
+	 * @return a uniformly distributed float
+	 */
+	
+	public float nextFloat() {
+		return (nextLong() >>> 40) * 0x1.0p-24f;
+	}
+	
+	/**
+	 * Returns the next pseudorandom, normally distributed double with mean 0.0
+	 * and standard deviation 1.0
+	 * @return a normally distributed double
+	 */
+	
+	public double nextGaussian() {
+		if (hasNextGaussian) {
+			hasNextGaussian = false;
+			return nextGaussian;
+		}
+		
+		// Marsaglia polar method; each pair of uniform values gives two results
+		double v1, v2, s;
+		do {
+			v1 = 2.0 * nextDouble() - 1.0;
+			v2 = 2.0 * nextDouble() - 1.0;
+			s = v1 * v1 + v2 * v2;
+		} while (s >= 1.0 || s == 0.0);
+		
+		double multiplier = StrictMath.sqrt(-2.0 * StrictMath.log(s) / s);
+		nextGaussian = v2 * multiplier;
+		hasNextGaussian = true;
+		
+		return v1 * multiplier;
+	}
+	
+	/**
+	 * Returns the current state of this stream, in a form suitable for saving
+	 * @return the current state
+	 */
+	
+	public String getState() {
+		return Long.toHexString(s0) + ":" + Long.toHexString(s1);
+	}
+	
+	/**
+	 * Sets the state of this stream to a state previously returned by {@link #getState()}.
+	 * This stream will then produce the same sequence of values as the saved stream
+	 * @param state the state to restore
+	 * @throws IllegalArgumentException if the state is not valid
+	 */
+	
+	public void setState(String state) {
+		String[] parts = state.split(":");
+		if (parts.length != 2) throw new IllegalArgumentException("Invalid random stream state " + state);
+		
+		try {
+			long newS0 = new BigInteger(parts[0], 16).longValue();
+			long newS1 = new BigInteger(parts[1], 16).longValue();
+			
+			if (newS0 == 0 && newS1 == 0) throw new IllegalArgumentException("Invalid random stream state " + state);
+			
+			s0 = newS0;
+			s1 = newS1;
+			hasNextGaussian = false;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid random stream state " + state, e);
+		}
+	}
+	
+	/**
+	 * The SplitMix64 finalizer.  Maps each long to a well mixed long, so that nearby
+	 * inputs such as consecutive indices give unrelated outputs
+	 * @param z the value to mix
+	 * @return the mixed value
+	 */
+	
+	public static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	/**
+	 * Returns the seed for the stream with the specified index derived from the specified
+	 * base seed.  Streams with different indices are independent, even for adjacent
+	 * indices or seeds
+	 * @param seed the base seed
+	 * @param index the index of the stream
+	 * @return the seed for the stream
+	 */
+	
+	public static long getStreamSeed(long seed, long index) {
+		return mix(seed + (index + 1) * GoldenGamma);
+	}
+}
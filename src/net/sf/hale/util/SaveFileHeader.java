@@ -22,7 +22,6 @@ package net.sf.hale.util;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -48,6 +47,21 @@ public class SaveFileHeader {
 	
 	private SaveFileHeader() { }
 	
+	/**
+	 * Creates a new SaveFileHeader with the specified data
+	 * @param versionID the version ID of the build that wrote the save
+	 * @param areaName the name of the area the party is in
+	 * @param level the maximum level of the party members
+	 * @param characterNames the names of the party members
+	 */
+	
+	protected SaveFileHeader(String versionID, String areaName, int level, List<String> characterNames) {
+		this.versionID = versionID;
+		this.areaName = areaName;
+		this.level = level;
+		this.characterNames = new ArrayList<String>(characterNames);
+	}
+	
 	/**
 	 * Creates a new SaveFileHeader for the specified campaign, using data
 	 * from the campaign's party
@@ -211,7 +225,7 @@ public class SaveFileHeader {
 	 * @throws IOException
 	 */
 	
-	public static SaveFileHeader read(GZIPInputStream in) throws IOException {
+	public static SaveFileHeader read(InputStream in) throws IOException {
 		SaveFileHeader header = new SaveFileHeader();
 		
 		// read HEADER line
@@ -0,0 +1,234 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import net.sf.hale.Game;
+import net.sf.hale.loading.JSONOrderedObject;
+import net.sf.hale.loading.SaveWriter;
+
+/**
+ * An index of the headers of all save files in the save directory.  The index is
+ * stored in a small file alongside the saves, so that the save and load menus can
+ * show the header data for each save without decompressing every save file.
+ *
+ * Each index entry records the modification time and size of the save file it was
+ * created from.  If a save file has changed since it was indexed, for example because
+ * it was replaced outside of the game, its header is read from the file again and
+ * the index is updated.
+ *
+ * All methods are synchronized, as saves may be written from the background thread.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class SaveGameIndex {
+	private static final String IndexFileName = "index.json";
+	
+	private static Map<String, Entry> entries;
+	private static boolean dirty;
+	
+	private static String getIndexFilePath() {
+		return Game.getSaveBaseDirectory() + IndexFileName;
+	}
+	
+	/**
+	 * Returns the header for the specified save file.  If the index contains an up to
+	 * date entry for the file, it is returned directly.  Otherwise, the header is read
+	 * from the file and the index is updated.
+	 * @param file the save file
+	 * @return the header for the save file, or null if the header could not be read
+	 */
+	
+	public static synchronized SaveFileHeader getHeader(File file) {
+		loadIndex();
+		
+		Entry entry = entries.get(file.getName());
+		if (entry != null && entry.matches(file)) return entry.header;
+		
+		SaveFileHeader header = readHeader(file);
+		if (header == null) return null;
+		
+		entries.put(file.getName(), new Entry(header, file.lastModified(), file.length()));
+		dirty = true;
+		
+		return header;
+	}
+	
+	/**
+	 * Writes the index to disk if any headers have been read from save files since
+	 * it was last written.  This should be called once a set of calls to
+	 * {@link #getHeader(File)} is complete, such as when closing the load game menu
+	 */
+	
+	public static synchronized void flush() {
+		if (dirty) writeIndex();
+	}
+	
+	/**
+	 * Records the specified header for the specified save file, which must have just
+	 * been written
+	 * @param file the save file
+	 * @param header the header that was written to the save file
+	 */
+	
+	public static synchronized void update(File file, SaveFileHeader header) {
+		loadIndex();
+		
+		entries.put(file.getName(), new Entry(header, file.lastModified(), file.length()));
+		writeIndex();
+	}
+	
+	/**
+	 * Removes the entry for the specified save file from the index, if it is present.
+	 * This should be called whenever a save file is deleted
+	 * @param file the save file
+	 */
+	
+	public static synchronized void remove(File file) {
+		loadIndex();
+		
+		if (entries.remove(file.getName()) != null) writeIndex();
+	}
+	
+	/*
+	 * Reads the header directly from the save file
+	 */
+	
+	private static SaveFileHeader readHeader(File file) {
+		FileInputStream fin = null;
+		try {
+			fin = new FileInputStream(file);
+			GZIPInputStream gz = new GZIPInputStream(fin);
+			
+			return SaveFileHeader.read(gz);
+		} catch (Exception e) {
+			Logger.appendToErrorLog("Error reading header for save game file " + file.getPath(), e);
+			return null;
+		} finally {
+			if (fin != null) {
+				try {
+					fin.close();
+				} catch (IOException e) {
+					Logger.appendToErrorLog("Error closing file " + file.getPath(), e);
+				}
+			}
+		}
+	}
+	
+	private static void loadIndex() {
+		if (entries != null) return;
+		
+		entries = new HashMap<String, Entry>();
+		
+		File indexFile = new File(getIndexFilePath());
+		if (!indexFile.isFile()) return;
+		
+		try {
+			SimpleJSONParser parser = new SimpleJSONParser(indexFile);
+			parser.setWarnOnMissingKeys(false);
+			
+			for (String fileName : parser.keySet()) {
+				SimpleJSONObject data = parser.getObject(fileName);
+				
+				List<String> names = new ArrayList<String>();
+				for (SimpleJSONArrayEntry nameEntry : data.getArray("partyNames")) {
+					names.add(nameEntry.getString());
+				}
+				
+				SaveFileHeader header = new SaveFileHeader(data.get("versionID", null),
+						data.get("areaName", null), data.get("partyLevel", 0), names);
+				
+				long modified = Long.parseLong(data.get("modified", "0"));
+				long length = Long.parseLong(data.get("length", "0"));
+				
+				entries.put(fileName, new Entry(header, modified, length));
+			}
+		} catch (Exception e) {
+			// the index will be rebuilt from the save files as needed
+			Logger.appendToErrorLog("Error reading save game index " + indexFile.getPath(), e);
+			entries.clear();
+		}
+	}
+	
+	private static void writeIndex() {
+		JSONOrderedObject data = new JSONOrderedObject();
+		
+		for (String fileName : entries.keySet()) {
+			Entry entry = entries.get(fileName);
+			
+			JSONOrderedObject entryData = new JSONOrderedObject();
+			entryData.put("modified", Long.toString(entry.modified));
+			entryData.put("length", Long.toString(entry.length));
+			entryData.put("versionID", entry.header.getVersionID());
+			entryData.put("areaName", entry.header.getAreaName());
+			entryData.put("partyLevel", entry.header.getPartyLevel());
+			entryData.put("partyNames", entry.header.getPartyNames().toArray());
+			
+			data.put(fileName, entryData);
+		}
+		
+		dirty = false;
+		
+		File dir = new File(Game.getSaveBaseDirectory());
+		if (!dir.exists()) dir.mkdirs();
+		
+		File indexFile = new File(getIndexFilePath());
+		File tempFile = new File(getIndexFilePath() + ".tmp");
+		try {
+			PrintWriter out = new PrintWriter(tempFile);
+			SaveWriter.writeJSON(data, out);
+			out.close();
+			
+			if (!tempFile.renameTo(indexFile)) {
+				indexFile.delete();
+				tempFile.renameTo(indexFile);
+			}
+		} catch (IOException e) {
+			Logger.appendToErrorLog("Error writing save game index " + indexFile.getPath(), e);
+		}
+	}
+	
+	private static class Entry {
+		private final SaveFileHeader header;
+		private final long modified;
+		private final long length;
+		
+		private Entry(SaveFileHeader header, long modified, long length) {
+			this.header = header;
+			this.modified = modified;
+			this.length = length;
+		}
+		
+		private boolean matches(File file) {
+			return file.lastModified() == modified && file.length() == length;
+		}
+	}
+}
@@ -29,9 +29,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.zip.GZIPOutputStream;
 
 import net.sf.hale.Game;
+import net.sf.hale.loading.BinarySaveFormat;
 import net.sf.hale.loading.JSONOrderedObject;
 import net.sf.hale.loading.LoadGameException;
 import net.sf.hale.loading.SaveWriter;
@@ -44,6 +46,12 @@ import net.sf.hale.resource.ResourceType;
  */
 
 public class SaveGameUtil {
+	/**
+	 * The name prefix of all autosave files
+	 */
+	
+	public static final String AutosavePrefix = "autosave";
+	
 	
 	/**
 	 * Returns a save-able reference string for the specified object
@@ -141,6 +149,16 @@ public class SaveGameUtil {
 		return saveGame.startsWith("quicksave");
 	}
 	
+	/**
+	 * Returns true if and only if the specified name represents an autosave file
+	 * @param saveGame the save game string to check
+	 * @return whether the string represents an autosave file
+	 */
+	
+	public static boolean isAutosave(String saveGame) {
+		return saveGame.startsWith(AutosavePrefix);
+	}
+	
 	/**
 	 * Returns the File for the next quicksave that should be written.  This is determined
 	 * by finding the most recently written quicksave and incrementing the quicksave
@@ -149,36 +167,57 @@ public class SaveGameUtil {
 	 */
 	
 	public static File getNextQuickSaveFile() {
+		return getNextRotatingSaveFile("quicksave", 9);
+	}
+	
+	/**
+	 * Returns the File for the next autosave that should be written.  This is determined
+	 * in the same way as for quicksaves, but using the specified number of autosave slots
+	 * @param numSlots the number of autosave files to rotate between
+	 * @return the File for the next autosave that should be written
+	 */
+	
+	public static File getNextAutosaveFile(int numSlots) {
+		return getNextRotatingSaveFile(AutosavePrefix, numSlots);
+	}
+	
+	/*
+	 * Finds the most recently written save with the specified prefix and returns the
+	 * file for the following slot, wrapping around to 1 after numSlots
+	 */
+	
+	private static File getNextRotatingSaveFile(String prefix, int numSlots) {
 		File[] files = new File(Game.getSaveBaseDirectory()).listFiles();
 		
-		if (files == null) return getSaveFile("quicksave1");
+		if (files == null) return getSaveFile(prefix + 1);
 		
 		sortFilesByTimeModified(files);
 		
 		for (File f : files) {
 			String name = f.getName();
 			
-			if ( !name.startsWith(Game.curCampaign.getID()) ) continue;
+			if ( !name.startsWith(Game.curCampaign.getID() + "-") ) continue;
+			if ( !name.endsWith(ResourceType.SaveGame.getExtension()) ) continue;
 			
 			String subName = name.substring(Game.curCampaign.getID().length() + 1,
 					name.length() - ResourceType.SaveGame.getLength());
 			
-			if ( !subName.startsWith("quicksave")) continue;
+			if ( !subName.startsWith(prefix)) continue;
 			
 			int index = 0;
 			try {
-				index = Integer.parseInt(Character.toString(subName.charAt(subName.length() - 1)));
+				index = Integer.parseInt(subName.substring(prefix.length()));
 			} catch (Exception e) {
-				Logger.appendToErrorLog("Error finding most recently created quicksave.  Reverting to index 1.", e);
+				Logger.appendToErrorLog("Error finding most recently created " + prefix + ".  Reverting to index 1.", e);
 			}
 			
 			index++;
-			if (index > 9) index = 1;
+			if (index > numSlots || index < 1) index = 1;
 			
-			return getSaveFile("quicksave" + index);
+			return getSaveFile(prefix + index);
 		}
 		
-		return getSaveFile("quicksave1");
+		return getSaveFile(prefix + 1);
 	}
 	
 	/**
@@ -202,18 +241,48 @@ public class SaveGameUtil {
 	/**
 	 * The current state of the game (as contained in the Game.curCampaign object)
 	 * is saved to the specified file in a compressed format.  A header containing
-	 * some basic information is also saved to the file.
+	 * some basic information is also saved to the file.  The data is written in
+	 * the binary format if {@link net.sf.hale.Config#useBinarySaveFormat()} is set,
+	 * otherwise as JSON text.
 	 * @param file the file to save to
 	 * @throws IOException any exception thrown by the OutputStream used to write the file
 	 */
 	
 	public static void saveGame(File file) throws IOException {
+		long start = Profiler.begin();
 		JSONOrderedObject data = Game.curCampaign.getSaveGameData();
+		Profiler.end("Save.CollectData", start);
+		
+		writeSaveGame(file, new SaveFileHeader(Game.curCampaign), data);
+	}
+	
+	/**
+	 * Writes the specified header and save game data to the specified file.  This method
+	 * does not access any game state other than the config, so it may be called from
+	 * any thread with the data returned by {@link net.sf.hale.rules.Campaign#getSaveGameData()}.
+	 * @param file the file to save to
+	 * @param header the save file header
+	 * @param data the campaign save game data
+	 * @throws IOException any exception thrown by the OutputStream used to write the file
+	 */
+	
+	public static void writeSaveGame(File file, SaveFileHeader header, Map<String, Object> data) throws IOException {
+		long start = Profiler.begin();
+		writeSaveGameData(file, header, data);
+		Profiler.end("Save.Write", start);
+		
+		SaveGameIndex.update(file, header);
+	}
+	
+	private static void writeSaveGameData(File file, SaveFileHeader header, Map<String, Object> data) throws IOException {
+		if (Game.config.useBinarySaveFormat()) {
+			BinarySaveFormat.write(file, header, data);
+			return;
+		}
 		
 		FileOutputStream fos = new FileOutputStream(file);
 		GZIPOutputStream gz = new GZIPOutputStream(fos);
 		
-		SaveFileHeader header = new SaveFileHeader(Game.curCampaign);
 		SaveFileHeader.write(header, gz);
 		
 		PrintWriter writer = new PrintWriter(gz);
@@ -221,4 +290,51 @@ public class SaveGameUtil {
 		
 		writer.close();
 	}
+	
+	/**
+	 * Writes the specified save game data to a temporary file, and then renames that file
+	 * to the specified file once writing is complete.  Readers of the save directory will
+	 * thus never see a partially written save file.
+	 * @param file the file to save to
+	 * @param header the save file header
+	 * @param data the campaign save game data
+	 * @throws IOException any exception thrown while writing, or if the file
+	 * could not be renamed
+	 */
+	
+	public static void writeSaveGameAtomic(File file, SaveFileHeader header, Map<String, Object> data) throws IOException {
+		File tempFile = new File(file.getPath() + ".tmp");
+		
+		try {
+			writeSaveGameData(tempFile, header, data);
+		} catch (IOException e) {
+			tempFile.delete();
+			throw e;
+		}
+		
+		if (!tempFile.renameTo(file)) {
+			// on some platforms, an existing file must be deleted before renaming over it
+			file.delete();
+			
+			if (!tempFile.renameTo(file)) {
+				tempFile.delete();
+				throw new IOException("Unable to rename " + tempFile.getPath() + " to " + file.getPath());
+			}
+		}
+		
+		SaveGameIndex.update(file, header);
+	}
+	
+	/**
+	 * Deletes the save game file corresponding to the save with the specified name, and
+	 * removes it from the save game index
+	 * @param name the name of the save game to delete
+	 */
+	
+	public static void deleteSaveGame(String name) {
+		File file = getSaveFile(name);
+		file.delete();
+		
+		SaveGameIndex.remove(file);
+	}
 }
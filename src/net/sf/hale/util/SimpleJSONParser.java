@@ -99,6 +99,16 @@ public class SimpleJSONParser {
 		initialize(reader, id);
 	}
 	
+	/**
+	 * Creates a new JSONParser wrapping the specified already parsed JSON data
+	 * @param object the JSON data
+	 * @param id the ID used for informational purposes if an error occurs
+	 */
+	
+	public SimpleJSONParser(JSONObject object, String id) {
+		result = new SimpleJSONObject(object, id);
+	}
+	
 	private void initialize(Reader reader, String id) {
 		JSONParser parser = new JSONParser(JSONParser.MODE_PERMISSIVE);
 
@@ -0,0 +1,147 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the shared thread pools used for background and parallel work.  All
+ * threads created by the pools are daemon threads, so they will never prevent
+ * the program from exiting.
+ *
+ * The compute pool has one thread per available processor and is intended for
+ * short, CPU bound tasks where the caller waits for the results, such as
+ * encoding save data.
+ * 
+ * The background pool has a single low priority thread and is intended for
+ * longer running tasks that the game does not wait on, such as writing autosaves.
+ * Tasks submitted to it are run in order.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class WorkerPool {
+	private static ExecutorService computePool;
+	private static ExecutorService backgroundPool;
+	
+	/**
+	 * Returns the number of threads used by the compute pool
+	 * @return the number of compute threads
+	 */
+	
+	public static int getNumberOfComputeThreads() {
+		return Math.max(1, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Returns the shared compute pool, creating it if needed
+	 * @return the compute pool
+	 */
+	
+	public static synchronized ExecutorService getComputePool() {
+		if (computePool == null) {
+			computePool = Executors.newFixedThreadPool(getNumberOfComputeThreads(),
+					new WorkerThreadFactory("compute", Thread.NORM_PRIORITY));
+		}
+		
+		return computePool;
+	}
+	
+	/**
+	 * Returns the shared background pool, creating it if needed
+	 * @return the background pool
+	 */
+	
+	public static synchronized ExecutorService getBackgroundPool() {
+		if (backgroundPool == null) {
+			backgroundPool = Executors.newSingleThreadExecutor(
+					new WorkerThreadFactory("background", Thread.MIN_PRIORITY));
+		}
+		
+		return backgroundPool;
+	}
+	
+	/**
+	 * Runs all of the specified tasks on the compute pool and waits for them to
+	 * complete.  The results are returned in the same order as the tasks.  If
+	 * there is only a single task, it is run directly on the calling thread.
+	 *
+	 * @param tasks the list of tasks to run
+	 * @return the list of results of the tasks
+	 * @throws ExecutionException if any task throws an exception.  The cause of
+	 * this exception will be the exception thrown by the task
+	 * @throws InterruptedException if the calling thread is interrupted while waiting
+	 */
+	
+	public static <T> List<T> invokeAll(List<? extends Callable<T>> tasks)
+			throws ExecutionException, InterruptedException {
+		List<T> results = new ArrayList<T>(tasks.size());
+		
+		if (tasks.size() == 1) {
+			try {
+				results.add(tasks.get(0).call());
+			} catch (Exception e) {
+				throw new ExecutionException(e);
+			}
+			
+			return results;
+		}
+		
+		List<Future<T>> futures = getComputePool().invokeAll(tasks);
+		for (Future<T> future : futures) {
+			results.add(future.get());
+		}
+		
+		return results;
+	}
+	
+	/**
+	 * Creates named daemon threads with a specified priority
+	 */
+	
+	protected static class WorkerThreadFactory implements ThreadFactory {
+		private final String name;
+		private final int priority;
+		private final AtomicInteger count;
+		
+		protected WorkerThreadFactory(String name, int priority) {
+			this.name = name;
+			this.priority = priority;
+			this.count = new AtomicInteger();
+		}
+		
+		@Override public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "hale-" + name + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setPriority(priority);
+			
+			return thread;
+		}
+	}
+}
@@ -270,8 +270,8 @@ public class AreaViewer extends Widget implements AreaTileGrid.AreaRenderer {
 		} else if (curTime > screenShake.lastTime + 110) {
 			screenShake.lastTime = curTime;
 			
-			int newShakeX = -1 * ((int)Math.signum(screenShake.lastShakeX)) * Game.dice.rand(20, 35);
-			int newShakeY = Game.dice.rand(-2, 2);
+			int newShakeX = -1 * ((int)Math.signum(screenShake.lastShakeX)) * Game.visualDice.rand(20, 35);
+			int newShakeY = Game.visualDice.rand(-2, 2);
 			
 			scroll(newShakeX - screenShake.lastShakeX, newShakeY - screenShake.lastShakeY, true);
 			
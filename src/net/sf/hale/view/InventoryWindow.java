@@ -24,6 +24,7 @@ import java.util.Map;
 
 import net.sf.hale.Game;
 import net.sf.hale.entity.Creature;
+import net.sf.hale.entity.EntityManager;
 import net.sf.hale.entity.EquippableItem;
 import net.sf.hale.entity.Inventory;
 import net.sf.hale.entity.PC;
@@ -329,11 +330,12 @@ public class InventoryWindow extends GameSubWindow implements ItemIconViewer.Lis
 			
 			if (validateTarget(target)) {
 				if (target.getParentPC() != null && target.getItem() instanceof EquippableItem) {
-					// equip an item from the inventory
-					creature.inventory.equipItem((EquippableItem)target.getItem(), slot);
+					// equip an item from the inventory; the dragged item is only a display item
+					creature.inventory.equipItem((EquippableItem)EntityManager.getItem(target.getItem()), slot);
 				} else if (target.getItemContainer() != null && target.getItem() instanceof EquippableItem) {
 					// equip an item from a container
-					creature.inventory.getTakeAndWieldCallback((EquippableItem)target.getItem(), target.getItemContainer()).run();
+					EquippableItem item = (EquippableItem)EntityManager.getItem(target.getItem());
+					creature.inventory.getTakeAndWieldCallback(item, target.getItemContainer()).run();
 				}
 			}
 			
@@ -199,7 +199,8 @@ public class ItemListViewer extends Widget implements ItemIconViewer.Listener, D
 				viewer = viewers.get(viewerIndex);
 			}
 			
-			Item item = entry.createItem();
+			// the viewers only show the item, so they can share a single display item
+			Item item = entry.getDisplayItem();
 			
 			switch (mode) {
 			case INVENTORY:
@@ -404,7 +405,7 @@ public class ItemListViewer extends Widget implements ItemIconViewer.Listener, D
 			
 			if (addButton) {
 				Button button = new Button("Take and Wield");
-				button.addCallback(creature.inventory.getTakeAndWieldCallback(eItem, container));
+				button.addCallback(creature.inventory.getTakeAndWieldCallback((EquippableItem)EntityManager.getItem(eItem), container));
 				menu.addButton(button);
 			}
 		}
@@ -481,15 +482,18 @@ public class ItemListViewer extends Widget implements ItemIconViewer.Listener, D
 		if (item instanceof EquippableItem) {
 			EquippableItem eItem = (EquippableItem)item;
 			
+			// the viewed item is a shared display item, so equip a new instance
+			EquippableItem newItem = (EquippableItem)EntityManager.getItem(eItem);
+			
 			Button button = new Button("Equip");
-			button.addCallback(creature.inventory.getEquipCallback(eItem, null));
+			button.addCallback(creature.inventory.getEquipCallback(newItem, null));
 			checkEquipButton(button, eItem);
 			
 			menu.addButton(button);
 			
 			if (eItem instanceof Weapon && creature.inventory.canEquip(eItem, Inventory.Slot.OffHand)) {
 				Button offHandButton = new Button("Equip Off Hand");
-				offHandButton.addCallback(creature.inventory.getEquipCallback(eItem, Inventory.Slot.OffHand));
+				offHandButton.addCallback(creature.inventory.getEquipCallback(newItem, Inventory.Slot.OffHand));
 				checkEquipButton(offHandButton, eItem);
 				
 				menu.addButton(offHandButton);
@@ -498,7 +502,7 @@ public class ItemListViewer extends Widget implements ItemIconViewer.Listener, D
 		
 		if (item.canUse(creature)) {
 			Button button = new Button(item.getTemplate().getUseText());
-			button.addCallback(item.getUseCallback(creature));
+			button.addCallback(EntityManager.getItem(item).getUseCallback(creature));
 			menu.addButton(button);
 		}
 
@@ -516,12 +520,12 @@ public class ItemListViewer extends Widget implements ItemIconViewer.Listener, D
 		}
 		if (!item.getTemplate().isQuest() && creature.timer.canPerformAction(Game.ruleset.getValue("DropItemCost"))) {
 			Button button = new Button("Drop");
-			button.addCallback(creature.inventory.getDropCallback(item, 1));
+			button.addCallback(creature.inventory.getDropCallback(EntityManager.getItem(item), 1));
 			menu.addButton(button);
 
 			if (quantity > 1) {
 				button = new Button("Drop Multiple...");
-				button.addCallback(creature.inventory.getDropCallback(item, quantity));
+				button.addCallback(creature.inventory.getDropCallback(EntityManager.getItem(item), quantity));
 				menu.addButton(button);
 			}
 		}
@@ -666,7 +670,8 @@ public class ItemListViewer extends Widget implements ItemIconViewer.Listener, D
 			if (target.getItemEquipSlot() == null) {
 				srcInventory.getDropEquippedCallback(target.getItemEquipSlot()).run();
 			} else {
-				srcInventory.getDropCallback(target.getItem(), srcInventory.getTotalQuantity(target.getItem())).run();
+				Item item = EntityManager.getItem(target.getItem());
+				srcInventory.getDropCallback(item, srcInventory.getTotalQuantity(item)).run();
 			}
 		}
 		
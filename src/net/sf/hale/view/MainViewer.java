@@ -39,12 +39,14 @@ import net.sf.hale.rules.QuestEntry;
 import net.sf.hale.util.AreaUtil;
 import net.sf.hale.util.Logger;
 import net.sf.hale.util.Point;
+import net.sf.hale.util.Profiler;
 import net.sf.hale.widgets.EntityMouseover;
 import net.sf.hale.widgets.FixedFadeAway;
 import net.sf.hale.widgets.InitiativeTicker;
 import net.sf.hale.widgets.MainPane;
 import net.sf.hale.widgets.OverHeadFadeAway;
 import net.sf.hale.widgets.PortraitArea;
+import net.sf.hale.widgets.ProfilerOverlay;
 import net.sf.hale.widgets.RightClickMenu;
 import net.sf.hale.widgets.TextAreaNoInput;
 
@@ -76,6 +78,7 @@ public class MainViewer extends DesktopArea {
 	private final List<PopupWindow> popupsToShow = new ArrayList<PopupWindow>();
 	private final List<PopupWindow> popupsToHide = new ArrayList<PopupWindow>();
 	private final FPSCounter fpsCounter;
+	private final ProfilerOverlay profilerOverlay;
 	
 	public final CharacterWindow characterWindow;
 	public final InventoryWindow inventoryWindow;
@@ -170,6 +173,7 @@ public class MainViewer extends DesktopArea {
         
         mainPane = new MainPane();
         fpsCounter = new FPSCounter();
+        profilerOverlay = new ProfilerOverlay();
         quickbarViewer = new QuickbarViewer();
 		portraitArea = new PortraitArea();
         ticker = new InitiativeTicker();
@@ -205,6 +209,7 @@ public class MainViewer extends DesktopArea {
         this.add(logWindow);
         this.add(merchantWindow);
         this.add(scriptConsole);
+        this.add(profilerOverlay);
         
         mainPane.setMovementModeIcon();
 	}
@@ -259,6 +264,13 @@ public class MainViewer extends DesktopArea {
 	
 	public PortraitArea getPortraitArea() { return portraitArea; }
 	
+	/**
+	 * Returns the overlay showing the current profiler timings
+	 * @return the profiler overlay
+	 */
+	
+	public ProfilerOverlay getProfilerOverlay() { return profilerOverlay; }
+	
 	/**
 	 * Gets the viewer for the currently active player's quickbar
 	 * @return the quickbar viewer
@@ -371,36 +383,60 @@ public class MainViewer extends DesktopArea {
 		
 		// run the main loop
 		while (isRunning) {
+			long frameStart = Profiler.begin();
+			
 			// load any async textures
+			long start = Profiler.begin();
 			Game.textureLoader.update();
+			Profiler.end("Frame.TextureLoader", start);
 			
 			GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
 			GL11.glColor3f(1.0f, 1.0f, 1.0f);
 			
 			frameTime = System.currentTimeMillis();
 			
+			start = Profiler.begin();
 			Game.areaViewer.update(frameTime);
+			Profiler.end("Frame.AreaViewer", start);
+			
+			start = Profiler.begin();
 			Game.particleManager.update(frameTime);
+			Profiler.end("Frame.Particles", start);
+			
 			Game.interfaceLocker.checkTime(frameTime);
+			
+			start = Profiler.begin();
 			Game.timer.updateTime(frameTime);
+			Profiler.end("Frame.Timer", start);
 			
 			if (menu.shouldPopupToggle()) {
 				menu.togglePopup();
 			}
 			
+			start = Profiler.begin();
 			updateContent(frameTime);
+			Profiler.end("Frame.Content", start);
+			
+			profilerOverlay.update(frameTime);
 			
+			start = Profiler.begin();
 			try {
 				gui.update();
 			} catch (Exception e) {
 				Logger.appendToErrorLog("Error in GUI update", e);
 			}
+			Profiler.end("Frame.GUI", start);
 			
+			start = Profiler.begin();
             Display.update(false);
             GL11.glGetError();
+            Profiler.end("Frame.Display", start);
+            
             if (Game.config.capFPS()) Display.sync(60);
             Display.processMessages();
             
+            Profiler.end("Frame", frameStart);
+            
 			if (Display.isCloseRequested()) {
 				new ConfirmQuitPopup(this, ConfirmQuitPopup.QuitMode.ExitGame).openPopupCentered();
 			}
@@ -666,7 +702,7 @@ public class MainViewer extends DesktopArea {
 		}
 		
 		if (updateInterface) {
-			//long startTime = System.nanoTime();
+			long startTime = Profiler.begin();
 			
 			this.updateInterface = false;
 			
@@ -693,7 +729,7 @@ public class MainViewer extends DesktopArea {
 			
 			Game.areaListener.getTargeterManager().checkCurrentTargeter();
 			
-			//System.out.println("Interface update in " + (System.nanoTime() - startTime) / 1e9);
+			Profiler.end("Frame.Content.Interface", startTime);
 		}
 		
 		synchronized(this) {
@@ -791,6 +827,8 @@ public class MainViewer extends DesktopArea {
 		
 		fpsCounter.setPosition(ticker.getRight(), getInnerY() + fpsCounter.getPreferredHeight() / 2);
 		
+		profilerOverlay.setPosition(ticker.getRight(), getInnerY() + fpsCounter.getPreferredHeight() * 2);
+		
 		int areaViewerOffset;
 		
 		if (ticker.isVisible()) {
@@ -0,0 +1,186 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.view;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import de.matthiasmann.twl.model.HasCallback;
+import de.matthiasmann.twl.textarea.HTMLTextAreaModel;
+import de.matthiasmann.twl.textarea.TextAreaModel;
+
+/**
+ * A TextAreaModel holding a fixed number of the most recent messages.  Each
+ * message is parsed from HTML into its own list of elements once, when it is
+ * appended.  The messages are stored in a ring buffer, so appending a message
+ * once the buffer is full simply replaces the oldest message, and the cost of
+ * adding a message does not depend on how many messages are held.
+ *
+ * This model is not thread safe and should only be used from the main thread.
+ *
+ * @author Jared Stephen
+ *
+ */
+
+public class MessageLogModel extends HasCallback implements TextAreaModel {
+	private final String[] messages;
+	private final List<List<Element>> elements;
+	
+	// index of the oldest message
+	private int start;
+	private int size;
+	
+	/**
+	 * Creates a new, empty model that will hold at most the specified number of messages
+	 * @param capacity the maximum number of messages
+	 */
+	
+	public MessageLogModel(int capacity) {
+		if (capacity < 1) throw new IllegalArgumentException("Capacity must be at least 1");
+		
+		messages = new String[capacity];
+		elements = new ArrayList<List<Element>>(capacity);
+		for (int i = 0; i < capacity; i++) {
+			elements.add(Collections.<Element>emptyList());
+		}
+	}
+	
+	/**
+	 * Returns the maximum number of messages held by this model
+	 * @return the maximum number of messages
+	 */
+	
+	public int getCapacity() {
+		return messages.length;
+	}
+	
+	/**
+	 * Returns the number of messages currently held by this model
+	 * @return the number of messages
+	 */
+	
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Adds the specified HTML message to the end of this model, dropping the oldest message
+	 * if this model is full.  Note that callbacks are not run by this method; call
+	 * {@link #fireChanged()} once all new messages have been appended.
+	 * @param html the HTML content of the message
+	 */
+	
+	public void append(String html) {
+		List<Element> messageElements = new ArrayList<Element>(2);
+		for (Element element : new HTMLTextAreaModel(html)) {
+			messageElements.add(element);
+		}
+		
+		int index;
+		if (size < messages.length) {
+			index = (start + size) % messages.length;
+			size++;
+		} else {
+			index = start;
+			start = (start + 1) % messages.length;
+		}
+		
+		messages[index] = html;
+		elements.set(index, messageElements);
+	}
+	
+	/**
+	 * Removes all messages from this model
+	 */
+	
+	public void clear() {
+		for (int i = 0; i < messages.length; i++) {
+			messages[i] = null;
+			elements.set(i, Collections.<Element>emptyList());
+		}
+		
+		start = 0;
+		size = 0;
+	}
+	
+	/**
+	 * Notifies any listeners, such as the TextArea showing this model, that the
+	 * messages in this model have changed
+	 */
+	
+	public void fireChanged() {
+		doCallback();
+	}
+	
+	/**
+	 * Returns the HTML content of all messages in this model, oldest first
+	 * @return the HTML content of all messages
+	 */
+	
+	public String getContents() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			sb.append(messages[(start + i) % messages.length]);
+		}
+		
+		return sb.toString();
+	}
+	
+	@Override public Iterator<Element> iterator() {
+		return new ElementIterator();
+	}
+	
+	/*
+	 * Iterates over the elements of each message in turn, oldest first
+	 */
+	
+	private class ElementIterator implements Iterator<Element> {
+		private int message;
+		private Iterator<Element> current;
+		
+		private ElementIterator() {
+			current = Collections.<Element>emptyList().iterator();
+		}
+		
+		@Override public boolean hasNext() {
+			while (!current.hasNext()) {
+				if (message == size) return false;
+				
+				current = elements.get((start + message) % messages.length).iterator();
+				message++;
+			}
+			
+			return true;
+		}
+		
+		@Override public Element next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			
+			return current.next();
+		}
+		
+		@Override public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -1,8 +1,10 @@
 package net.sf.hale.view;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import de.matthiasmann.twl.ScrollPane;
 import de.matthiasmann.twl.TextArea;
-import de.matthiasmann.twl.textarea.HTMLTextAreaModel;
 
 /**
  * The sub window showing the contents of the message log
@@ -11,26 +13,27 @@ import de.matthiasmann.twl.textarea.HTMLTextAreaModel;
  */
 
 public class MessagesWindow extends GameSubWindow {
-	private volatile boolean cacheDirty;
+	// the maximum number of messages shown in the log
+	private static final int MaxMessages = 150;
 	
-	private final HTMLTextAreaModel textAreaModel;
+	private final MessageLogModel textAreaModel;
 	private final TextArea textArea;
 	private final ScrollPane scrollPane;
-	private StringBuilder content;
+	
+	// messages added since the last update, which may be added from any thread
+	private final List<String> pendingMessages;
 	
 	public MessagesWindow() {
 		this.setTitle("Messages");
 		
-		textAreaModel = new HTMLTextAreaModel();
+		textAreaModel = new MessageLogModel(MaxMessages);
         textArea = new TextArea(textAreaModel);
 		scrollPane = new ScrollPane(textArea);
 		scrollPane.setTheme("messagespane");
 		scrollPane.setFixed(ScrollPane.Fixed.HORIZONTAL);
 		add(scrollPane);
 		
-		content = new StringBuilder();
-		
-		cacheDirty = true;
+		pendingMessages = new ArrayList<String>();
 	}
 	
 	@Override protected void layout() {
@@ -46,7 +49,15 @@ public class MessagesWindow extends GameSubWindow {
 	 */
 	
 	public String getContents() {
-		return content.toString();
+		StringBuilder sb = new StringBuilder(textAreaModel.getContents());
+		
+		synchronized(pendingMessages) {
+			for (String message : pendingMessages) {
+				sb.append(message);
+			}
+		}
+		
+		return sb.toString();
 	}
 	
 	/**
@@ -57,39 +68,38 @@ public class MessagesWindow extends GameSubWindow {
 	 */
 	
 	public void addMessage(String font, String text) {
-		synchronized(content) {
-			content.append("<div style=\"font-family: ").append(font).append("; \">");
-
-			content.append(text);
-
-			content.append("</div>");
-
-			// Keep the content from becoming too long
-			while (content.length() > 10000) {
-				int index = content.indexOf("</div>");
-				content.delete(0, index + 6);
-			}
-		}
+		StringBuilder message = new StringBuilder();
+		message.append("<div style=\"font-family: ").append(font).append("; \">");
+		message.append(text);
+		message.append("</div>");
 		
-		cacheDirty = true;
+		synchronized(pendingMessages) {
+			pendingMessages.add(message.toString());
+		}
 	}
 	
 	/**
 	 * Updates the state of this message window with any new messages
-	 * that have been added or any other changes.
+	 * that have been added or any other changes.  Only the new messages
+	 * are parsed; messages already shown are kept as they are.
 	 */
 	
 	public void updateContent() {
-		if (!cacheDirty) return;
-		
-		cacheDirty = false;
+		List<String> messages;
+		synchronized(pendingMessages) {
+			if (pendingMessages.isEmpty()) return;
+			
+			messages = new ArrayList<String>(pendingMessages);
+			pendingMessages.clear();
+		}
 		
-		String contentString;
-		synchronized(content) {
-			contentString = content.toString();
+		// messages that would be immediately dropped from the log don't need to be parsed
+		int first = Math.max(0, messages.size() - textAreaModel.getCapacity());
+		for (int i = first; i < messages.size(); i++) {
+			textAreaModel.append(messages.get(i));
 		}
 		
-		textAreaModel.setHtml(contentString);
+		textAreaModel.fireChanged();
 
 		scrollPane.validateLayout();
 		scrollPane.setScrollPositionY(scrollPane.getMaxScrollPosY());
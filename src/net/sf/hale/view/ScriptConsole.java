@@ -20,9 +20,12 @@
 package net.sf.hale.view;
 
 import java.util.LinkedList;
+import java.util.List;
 
 import net.sf.hale.Game;
+import net.sf.hale.ability.ScriptMetrics;
 import net.sf.hale.util.JSEngine;
+import net.sf.hale.util.Logger;
 
 import de.matthiasmann.twl.EditField;
 import de.matthiasmann.twl.Event;
@@ -71,6 +74,7 @@ public class ScriptConsole extends GameSubWindow {
 		
 		printLastException = new ScriptPrintLastException();
 		printHelp = new ScriptPrintHelp();
+		printScriptStats = new ScriptPrintStats();
 		
 		// set up the widgets
 		editField = new ScriptEntryField(new DefaultEditFieldModel());
@@ -115,6 +119,7 @@ public class ScriptConsole extends GameSubWindow {
 		jsEngine.put("view", Game.mainViewer);
 		jsEngine.put("printLastException", printLastException);
 		jsEngine.put("help", printHelp);
+		jsEngine.put("scriptStats", printScriptStats);
 	}
 	
 	private void executeScript(String text) {
@@ -518,6 +523,7 @@ public class ScriptConsole extends GameSubWindow {
 	
 	private final ScriptPrintLastException printLastException;
 	private final ScriptPrintHelp printHelp;
+	private final ScriptPrintStats printScriptStats;
 	
 	private class ScriptPrintLastException {
 		@Override public String toString() {
@@ -545,6 +551,7 @@ public class ScriptConsole extends GameSubWindow {
 			startAppend("green");
 			appendString("<p>&nbsp;&nbsp;&nbsp;help</p>");
 			appendString("<p>&nbsp;&nbsp;&nbsp;printLastException</p>");
+			appendString("<p>&nbsp;&nbsp;&nbsp;scriptStats</p>");
 			appendString("<p>&nbsp;&nbsp;&nbsp;game</p>");
 			appendString("<p>&nbsp;&nbsp;&nbsp;view</p>");
 			appendString("<p>&nbsp;&nbsp;&nbsp;runtime</p>");
@@ -553,4 +560,55 @@ public class ScriptConsole extends GameSubWindow {
 			return "";
 		}
 	}
+	
+	/**
+	 * The console object for viewing script execution statistics.  Printing the
+	 * object shows the script functions with the most total time; dump() writes the
+	 * statistics for all functions to the log, and clear() discards them
+	 * @author Jared Stephen
+	 *
+	 */
+	
+	public class ScriptPrintStats {
+		private static final int MaxEntries = 20;
+		
+		/**
+		 * Writes the statistics for all script functions to the log directory
+		 * @return the path of the file written
+		 */
+		
+		public String dump() {
+			try {
+				return ScriptMetrics.writeLog().getPath();
+			} catch (Exception e) {
+				Logger.appendToErrorLog("Error writing script statistics", e);
+				return "Error writing script statistics.";
+			}
+		}
+		
+		/**
+		 * Discards all script statistics recorded so far
+		 * @return an empty String
+		 */
+		
+		public String clear() {
+			ScriptMetrics.clear();
+			
+			return "";
+		}
+		
+		@Override public String toString() {
+			List<ScriptMetrics.Entry> entries = ScriptMetrics.getEntries();
+			
+			appendText("purple", "script:function, calls, total ms, max ms, allocated KB, calls over budget");
+			
+			for (int i = 0; i < entries.size() && i < MaxEntries; i++) {
+				ScriptMetrics.Entry entry = entries.get(i);
+				
+				appendText(entry.getOverBudgetCount() > 0 ? "red" : "black", entry.toString());
+			}
+			
+			return "";
+		}
+	}
 }
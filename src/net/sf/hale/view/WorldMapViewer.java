@@ -217,6 +217,12 @@ public class WorldMapViewer extends Widget {
 				travel.setVisible(false);
 			} else {
 				travel.setText("Travel: " + Game.curCampaign.getDate().getDateString(0, 0, origin.getTravelTime(location), 0, 0));
+				
+				// the player may be about to travel, so start loading the destination
+				if (location.getStartingTransition() != null) {
+					Transition transition = Game.curCampaign.getAreaTransition(location.getStartingTransition());
+					Game.curCampaign.preloadArea(transition, true);
+				}
 			}
 		}
 		
@@ -120,7 +120,8 @@ public class ItemIconViewer extends IconViewer implements DragTarget, DropTarget
 	 */
 	
 	public void setItem(Item item, int quantity, PC parent, Container container, Merchant merchant) {
-		if (item == this.item && quantity == this.quantity)
+		if (item == this.item && quantity == this.quantity && parent == this.parent &&
+				container == this.container && merchant == this.merchant)
 			return;
 		
 		this.container = container;
@@ -0,0 +1,113 @@
+/*
+ * Hale is highly moddable tactical RPG.
+ * Copyright (C) 2011 Jared Stephen
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.hale.widgets;
+
+import java.util.List;
+
+import net.sf.hale.util.Profiler;
+
+import de.matthiasmann.twl.textarea.HTMLTextAreaModel;
+
+/**
+ * An overlay showing the timings recorded by the {@link Profiler} over the last
+ * second, for the sections with the most total time.  The profiler is enabled
+ * while the overlay is visible.
+ * @author Jared Stephen
+ *
+ */
+
+public class ProfilerOverlay extends TextAreaNoInput {
+	private static final int MaxSections = 16;
+	private static final long WindowMillis = 1000;
+	
+	private final HTMLTextAreaModel model;
+	
+	private long windowStartTime;
+	
+	/**
+	 * Creates a new, hidden ProfilerOverlay
+	 */
+	
+	public ProfilerOverlay() {
+		this(new HTMLTextAreaModel());
+	}
+	
+	private ProfilerOverlay(HTMLTextAreaModel model) {
+		super(model);
+		this.model = model;
+		
+		setTheme("profileroverlay");
+		setVisible(false);
+	}
+	
+	/**
+	 * Shows or hides this overlay, enabling or disabling the profiler to match
+	 */
+	
+	public void toggle() {
+		boolean visible = !isVisible();
+		
+		setVisible(visible);
+		Profiler.setEnabled(visible);
+		
+		if (visible) {
+			windowStartTime = System.currentTimeMillis();
+			model.setHtml("<div>Profiling...</div>");
+		}
+	}
+	
+	/**
+	 * Updates the displayed timings if the current window has finished.  This
+	 * should be called once per frame
+	 * @param curTime the current time in milliseconds
+	 */
+	
+	public void update(long curTime) {
+		if (!isVisible() || curTime - windowStartTime < WindowMillis) return;
+		
+		long windowNanos = (curTime - windowStartTime) * 1000000l;
+		windowStartTime = curTime;
+		
+		List<Profiler.Timing> timings = Profiler.rollWindow();
+		
+		StringBuilder sb = new StringBuilder();
+		sb.append("<div>Section: calls, % of time, avg / p95 / max ms</div>");
+		
+		for (int i = 0; i < timings.size() && i < MaxSections; i++) {
+			Profiler.Timing timing = timings.get(i);
+			
+			sb.append("<div>");
+			sb.append(escape(timing.section)).append(": ");
+			sb.append(timing.count).append(", ");
+			sb.append(String.format("%.1f%%, ", 100.0 * timing.totalNanos / windowNanos));
+			sb.append(String.format("%.2f / %.2f / %.2f", timing.totalNanos / 1e6 / timing.count,
+					timing.percentile95Nanos / 1e6, timing.maxNanos / 1e6));
+			sb.append("</div>");
+		}
+		
+		model.setHtml(sb.toString());
+		
+		setSize(getPreferredWidth(), getPreferredHeight());
+	}
+	
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+	}
+}